@@ -70,6 +70,31 @@ tasks {
         classpath(sourceSets["main"].runtimeClasspath)
     }
 
+    register("jmhScaling", type=JavaExec::class) {
+        mainClass.set("com.github.jbench.runner.ScalingRunner")
+        classpath(sourceSets["main"].runtimeClasspath)
+    }
+
+    register("jmhLatency", type=JavaExec::class) {
+        mainClass.set("com.github.jbench.runner.LatencyRunner")
+        classpath(sourceSets["main"].runtimeClasspath)
+    }
+
+    register("jmhIntrinsics", type=JavaExec::class) {
+        mainClass.set("com.github.jbench.runner.IntrinsicsRunner")
+        classpath(sourceSets["main"].runtimeClasspath)
+    }
+
+    register("jmhGc", type=JavaExec::class) {
+        mainClass.set("com.github.jbench.runner.GcRunner")
+        classpath(sourceSets["main"].runtimeClasspath)
+    }
+
+    register("jmhWarmup", type=JavaExec::class) {
+        mainClass.set("com.github.jbench.runner.WarmupRunner")
+        classpath(sourceSets["main"].runtimeClasspath)
+    }
+
     "build" {
         dependsOn(uberJar)
     }
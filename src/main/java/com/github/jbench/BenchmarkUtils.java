@@ -2,9 +2,18 @@ package com.github.jbench;
 
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Random;
 
 /**
  * The utilities for the JMH-based benchmarks.
@@ -25,6 +34,14 @@ public class BenchmarkUtils {
 
     private static final SecureRandom RANDOM = new SecureRandom();
 
+    private static final String[] WORDS = {
+            "the", "of", "and", "to", "a", "in", "is", "that", "for", "it",
+            "with", "as", "was", "on", "be", "by", "this", "are", "from", "or",
+            "have", "not", "which", "an", "but", "at", "they", "one", "all", "can",
+            "cipher", "benchmark", "throughput", "provider", "message", "digest",
+            "signature", "certificate", "compression", "performance", "security",
+            "algorithm", "encryption", "authentication", "transformation"};
+
     public static String toHex(byte[] bytes) {
         StringBuilder result = new StringBuilder();
         for (byte b : bytes) {
@@ -52,6 +69,73 @@ public class BenchmarkUtils {
         return data;
     }
 
+    /**
+     * Generate the data with the specified entropy.
+     *
+     * @param kind RANDOM, TEXT, or the compressibility in percent, e.g. 75%
+     * @param size the data size in bytes
+     */
+    public static byte[] data(String kind, int size) {
+        if (kind.equals("RANDOM")) {
+            return randomBytes(size);
+        } else if (kind.equals("TEXT")) {
+            return textBytes(size);
+        } else if (kind.endsWith("%")) {
+            return compressibleBytes(size, Integer.parseInt(
+                    kind.substring(0, kind.length() - 1)) / 100.0);
+        }
+
+        throw new IllegalArgumentException("Unknown data kind: " + kind);
+    }
+
+    /**
+     * Generate the text-like data, which are the words drawn from a small
+     * vocabulary with a skewed distribution, like the natural language.
+     */
+    public static byte[] textBytes(int size) {
+        byte[] data = new byte[size];
+        Random random = new Random(size);
+        for (int i = 0; i < size; ) {
+            // The lower indexes, i.e. the common words, are drawn more often
+            String word = WORDS[(int) (WORDS.length
+                    * Math.pow(random.nextDouble(), 3))];
+            for (int j = 0; j < word.length() && i < size; j++) {
+                data[i++] = (byte) word.charAt(j);
+            }
+            if (i < size) {
+                data[i++] = (byte) (random.nextInt(12) == 0 ? '\n' : ' ');
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Generate the data, which Deflater compresses to about
+     * (1 - compressibility) of the size. Every 256-byte block consists of
+     * the random bytes and a run of the same byte.
+     *
+     * @param compressibility from 0.0, i.e. random, to 1.0, i.e. repetitive
+     */
+    public static byte[] compressibleBytes(int size, double compressibility) {
+        if (compressibility < 0 || compressibility > 1) {
+            throw new IllegalArgumentException(
+                    "Unsupported compressibility: " + compressibility);
+        }
+
+        byte[] data = new byte[size];
+        Random random = new Random(size);
+        int randomLength = (int) Math.round(256 * (1 - compressibility));
+        for (int offset = 0; offset < size; offset += 256) {
+            int blockEnd = Math.min(offset + 256, size);
+            int randomEnd = Math.min(offset + randomLength, blockEnd);
+            for (int i = offset; i < randomEnd; i++) {
+                data[i] = (byte) random.nextInt(256);
+            }
+            Arrays.fill(data, randomEnd, blockEnd, (byte) 'a');
+        }
+        return data;
+    }
+
     public static byte[] kbytes(int sizeInKB) {
         return bytes(sizeInKB * 1024);
     }
@@ -60,6 +144,78 @@ public class BenchmarkUtils {
         return kbytes(sizeInMB * 1024);
     }
 
+    public static double toMB(int size) {
+        return size / (1024.0 * 1024.0);
+    }
+
+    /**
+     * Allocate a buffer with the specified kind.
+     *
+     * @param kind HEAP, DIRECT or MAPPED
+     * @param capacity the buffer capacity in bytes
+     */
+    public static ByteBuffer buffer(String kind, int capacity)
+            throws IOException {
+        if (kind.equals("HEAP")) {
+            return ByteBuffer.allocate(capacity);
+        } else if (kind.equals("DIRECT")) {
+            return ByteBuffer.allocateDirect(capacity);
+        } else if (kind.equals("MAPPED")) {
+            return mappedBuffer(capacity);
+        }
+
+        throw new IllegalArgumentException("Unknown buffer kind: " + kind);
+    }
+
+    /**
+     * Allocate a buffer with the specified kind, and fill it with the data.
+     * The returned buffer is ready for reading.
+     */
+    public static ByteBuffer buffer(String kind, byte[] data)
+            throws IOException {
+        ByteBuffer buffer = buffer(kind, data.length);
+        buffer.put(data);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Map a temporary file, which is deleted on exit, into memory.
+     */
+    public static MappedByteBuffer mappedBuffer(int capacity)
+            throws IOException {
+        Path file = Files.createTempFile("jbench-", ".bin");
+        file.toFile().deleteOnExit();
+
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+    }
+
+    /**
+     * Create a temporary file, which is deleted on exit, and fill it with
+     * the random data.
+     *
+     * @param size the file size in bytes, which can exceed 2 GB
+     */
+    public static Path tempFile(long size) throws IOException {
+        Path file = Files.createTempFile("jbench-", ".bin");
+        file.toFile().deleteOnExit();
+
+        ByteBuffer chunk = ByteBuffer.wrap(randomBytes(1024 * 1024));
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.WRITE)) {
+            for (long position = 0; position < size; ) {
+                chunk.clear();
+                chunk.limit((int) Math.min(chunk.capacity(), size - position));
+                position += channel.write(chunk, position);
+            }
+        }
+
+        return file;
+    }
+
     public static String formattedTime() {
         return formattedTime("yyyyMMddHHmmss");
     }
@@ -74,4 +230,54 @@ public class BenchmarkUtils {
         RANDOM.nextBytes(bytes);
         return bytes;
     }
+
+    /**
+     * The random IVs or nonces, generated in advance, which the benchmarks
+     * rotate through, as every message takes a new IV. They are not generated
+     * per message, so the benchmarks don't depend on the invocation-level
+     * setup. Some ciphers, e.g. GCM, reject the key and IV of the last
+     * initialization, so there are 16 IVs by default.
+     */
+    public static class RotatingIvs {
+
+        private final byte[][] ivs;
+        private int index;
+
+        public RotatingIvs(int length) {
+            this(length, 16);
+        }
+
+        public RotatingIvs(int length, int count) {
+            ivs = new byte[count][];
+            for (int i = 0; i < count; i++) {
+                ivs[i] = randomBytes(length);
+            }
+        }
+
+        /**
+         * Move on to the next IV.
+         *
+         * @return the next IV
+         */
+        public byte[] next() {
+            index = (index + 1) % ivs.length;
+            return ivs[index];
+        }
+
+        /**
+         * The index of the current IV, e.g. to pick the ciphertext, which
+         * was encrypted with it.
+         */
+        public int index() {
+            return index;
+        }
+
+        public byte[] get(int index) {
+            return ivs[index];
+        }
+
+        public int count() {
+            return ivs.length;
+        }
+    }
 }
@@ -0,0 +1,113 @@
+package com.github.jbench;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.Signature;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The factory for the crypto objects, which looks up each provider only once.
+ *
+ * MessageDigest and Mac instances are cloned from the cached prototypes, so
+ * every call returns a new instance. Cipher and Signature instances cannot be
+ * cloned, so every thread reuses its own instance, which must be initialized
+ * again before use. The MessageDigest and Mac instances, which don't support
+ * cloning, are reused in the same way.
+ *
+ * A null provider means the default provider.
+ */
+public class CachingCryptoFactory {
+
+    private static final ConcurrentMap<String, Object> PROTOTYPES
+            = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<Map<String, Object>> INSTANCES
+            = ThreadLocal.withInitial(HashMap::new);
+
+    @FunctionalInterface
+    private interface Lookup<T> {
+
+        T getInstance() throws GeneralSecurityException;
+    }
+
+    public static MessageDigest messageDigest(String algorithm, String provider)
+            throws GeneralSecurityException {
+        String key = key("MessageDigest", algorithm, provider);
+        Lookup<MessageDigest> lookup = () -> provider == null
+                ? MessageDigest.getInstance(algorithm)
+                : MessageDigest.getInstance(algorithm, provider);
+
+        MessageDigest prototype = prototype(key, lookup);
+        try {
+            return (MessageDigest) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            return perThread(key, lookup);
+        }
+    }
+
+    public static Mac mac(String algorithm, String provider)
+            throws GeneralSecurityException {
+        String key = key("Mac", algorithm, provider);
+        Lookup<Mac> lookup = () -> provider == null
+                ? Mac.getInstance(algorithm)
+                : Mac.getInstance(algorithm, provider);
+
+        Mac prototype = prototype(key, lookup);
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            return perThread(key, lookup);
+        }
+    }
+
+    public static Cipher cipher(String transformation, String provider)
+            throws GeneralSecurityException {
+        return perThread(key("Cipher", transformation, provider),
+                () -> provider == null
+                        ? Cipher.getInstance(transformation)
+                        : Cipher.getInstance(transformation, provider));
+    }
+
+    public static Signature signature(String algorithm, String provider)
+            throws GeneralSecurityException {
+        return perThread(key("Signature", algorithm, provider),
+                () -> provider == null
+                        ? Signature.getInstance(algorithm)
+                        : Signature.getInstance(algorithm, provider));
+    }
+
+    private static String key(String engine, String algorithm, String provider) {
+        return engine + ":" + algorithm + ":" + provider;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T prototype(String key, Lookup<T> lookup)
+            throws GeneralSecurityException {
+        Object prototype = PROTOTYPES.get(key);
+        if (prototype == null) {
+            prototype = lookup.getInstance();
+            Object existing = PROTOTYPES.putIfAbsent(key, prototype);
+            if (existing != null) {
+                prototype = existing;
+            }
+        }
+        return (T) prototype;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T perThread(String key, Lookup<T> lookup)
+            throws GeneralSecurityException {
+        Map<String, Object> instances = INSTANCES.get();
+        Object instance = instances.get(key);
+        if (instance == null) {
+            instance = lookup.getInstance();
+            instances.put(key, instance);
+        }
+        return (T) instance;
+    }
+}
@@ -0,0 +1,182 @@
+package com.github.jbench;
+
+import org.bouncycastle.asn1.ASN1EncodableVector;
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.DERBitString;
+import org.bouncycastle.asn1.DERNull;
+import org.bouncycastle.asn1.DERSequence;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.Certificate;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.ExtensionsGenerator;
+import org.bouncycastle.asn1.x509.KeyUsage;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
+import org.bouncycastle.asn1.x509.TBSCertificate;
+import org.bouncycastle.asn1.x509.Time;
+import org.bouncycastle.asn1.x509.V3TBSCertificateGenerator;
+import org.bouncycastle.asn1.x9.X9ObjectIdentifiers;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.RSAKeyGenParameterSpec;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The utilities for generating the test certificates with the Bouncy Castle
+ * ASN.1 structures.
+ */
+public class CertificateUtils {
+
+    // RFC 8410
+    private static final ASN1ObjectIdentifier ID_ED25519
+            = new ASN1ObjectIdentifier("1.3.101.112");
+
+    /**
+     * A certificate chain and the private key of the end-entity certificate.
+     */
+    public static class Chain {
+
+        // The end-entity certificate is the first, and the root CA is the last
+        public final X509Certificate[] certificates;
+        public final PrivateKey privateKey;
+
+        private Chain(X509Certificate[] certificates, PrivateKey privateKey) {
+            this.certificates = certificates;
+            this.privateKey = privateKey;
+        }
+
+        public X509Certificate endEntity() {
+            return certificates[0];
+        }
+
+        public X509Certificate root() {
+            return certificates[certificates.length - 1];
+        }
+    }
+
+    /**
+     * Generate a certificate chain, which consists of a root CA, the
+     * intermediate CAs and an end-entity certificate.
+     *
+     * @param keyType RSA, EC or Ed25519
+     * @param depth the number of certificates, 1 means a self-signed
+     *              end-entity certificate
+     */
+    public static Chain chain(String keyType, int depth) throws Exception {
+        X509Certificate[] certificates = new X509Certificate[depth];
+
+        KeyPair issuerKeyPair = keyPair(keyType);
+        String issuer = depth == 1 ? "CN=End Entity" : "CN=Root CA";
+        certificates[depth - 1] = certificate(issuer, issuerKeyPair.getPublic(),
+                issuer, issuerKeyPair.getPrivate(), keyType, depth > 1);
+
+        for (int i = depth - 2; i >= 0; i--) {
+            KeyPair keyPair = keyPair(keyType);
+            String subject = i == 0 ? "CN=End Entity" : "CN=Intermediate CA " + i;
+            certificates[i] = certificate(subject, keyPair.getPublic(),
+                    issuer, issuerKeyPair.getPrivate(), keyType, i > 0);
+
+            issuerKeyPair = keyPair;
+            issuer = subject;
+        }
+
+        return new Chain(certificates, issuerKeyPair.getPrivate());
+    }
+
+    public static KeyPair keyPair(String keyType) throws Exception {
+        KeyPairGenerator keyPairGen = KeyPairGenerator.getInstance(keyType);
+        if (keyType.equals("RSA")) {
+            keyPairGen.initialize(new RSAKeyGenParameterSpec(
+                    2048, RSAKeyGenParameterSpec.F4));
+        } else if (keyType.equals("EC")) {
+            keyPairGen.initialize(new ECGenParameterSpec("SECP256R1"));
+        } else if (!keyType.equals("Ed25519")) {
+            throw new IllegalArgumentException("Unsupported key type: " + keyType);
+        }
+
+        return keyPairGen.generateKeyPair();
+    }
+
+    public static String signatureAlgorithm(String keyType) {
+        if (keyType.equals("RSA")) {
+            return "SHA256withRSA";
+        } else if (keyType.equals("EC")) {
+            return "SHA256withECDSA";
+        } else if (keyType.equals("Ed25519")) {
+            return "Ed25519";
+        }
+
+        throw new IllegalArgumentException("Unsupported key type: " + keyType);
+    }
+
+    private static AlgorithmIdentifier signatureAlgorithmId(String keyType) {
+        if (keyType.equals("RSA")) {
+            return new AlgorithmIdentifier(
+                    PKCSObjectIdentifiers.sha256WithRSAEncryption, DERNull.INSTANCE);
+        } else if (keyType.equals("EC")) {
+            return new AlgorithmIdentifier(X9ObjectIdentifiers.ecdsa_with_SHA256);
+        } else if (keyType.equals("Ed25519")) {
+            return new AlgorithmIdentifier(ID_ED25519);
+        }
+
+        throw new IllegalArgumentException("Unsupported key type: " + keyType);
+    }
+
+    private static X509Certificate certificate(
+            String subject, PublicKey publicKey,
+            String issuer, PrivateKey issuerKey,
+            String keyType, boolean ca) throws Exception {
+        long now = System.currentTimeMillis();
+        AlgorithmIdentifier signatureAlgorithmId = signatureAlgorithmId(keyType);
+
+        V3TBSCertificateGenerator tbsGen = new V3TBSCertificateGenerator();
+        tbsGen.setSerialNumber(new ASN1Integer(BigInteger.valueOf(now)
+                .shiftLeft(16).add(BigInteger.valueOf(subject.hashCode() & 0xFFFF))));
+        tbsGen.setSubject(new X500Name(subject));
+        tbsGen.setIssuer(new X500Name(issuer));
+        tbsGen.setStartDate(new Time(new Date(now - TimeUnit.DAYS.toMillis(1))));
+        tbsGen.setEndDate(new Time(new Date(now + TimeUnit.DAYS.toMillis(365))));
+        tbsGen.setSubjectPublicKeyInfo(
+                SubjectPublicKeyInfo.getInstance(publicKey.getEncoded()));
+        tbsGen.setSignature(signatureAlgorithmId);
+
+        ExtensionsGenerator extGen = new ExtensionsGenerator();
+        extGen.addExtension(Extension.basicConstraints, true,
+                new BasicConstraints(ca));
+        extGen.addExtension(Extension.keyUsage, true, ca
+                ? new KeyUsage(KeyUsage.keyCertSign | KeyUsage.cRLSign)
+                : new KeyUsage(KeyUsage.digitalSignature | KeyUsage.keyEncipherment));
+        tbsGen.setExtensions(extGen.generate());
+
+        TBSCertificate tbs = tbsGen.generateTBSCertificate();
+
+        Signature signer = Signature.getInstance(signatureAlgorithm(keyType));
+        signer.initSign(issuerKey);
+        signer.update(tbs.getEncoded(ASN1Encoding.DER));
+
+        ASN1EncodableVector certVector = new ASN1EncodableVector();
+        certVector.add(tbs);
+        certVector.add(signatureAlgorithmId);
+        certVector.add(new DERBitString(signer.sign()));
+        Certificate certificate = Certificate.getInstance(
+                new DERSequence(certVector));
+
+        return (X509Certificate) CertificateFactory.getInstance("X.509")
+                .generateCertificate(new ByteArrayInputStream(
+                        certificate.getEncoded(ASN1Encoding.DER)));
+    }
+}
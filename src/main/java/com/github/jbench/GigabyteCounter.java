@@ -0,0 +1,23 @@
+package com.github.jbench;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The auxiliary counter for the processed files. JMH reports it as a secondary
+ * result with the benchmark time unit, e.g. GB/s in throughput mode.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class GigabyteCounter {
+
+    public double gigabytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        gigabytes = 0;
+    }
+}
@@ -0,0 +1,137 @@
+package com.github.jbench;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The strategy to provide thread-unsafe objects, e.g. MessageDigest, to
+ * concurrent benchmark threads. An acquired instance must be released by the
+ * same thread.
+ *
+ * @param <T> the object type
+ */
+public abstract class Instances<T> {
+
+    @FunctionalInterface
+    public interface Factory<T> {
+
+        T create() throws Exception;
+    }
+
+    /**
+     * Create the instances with the specified strategy.
+     *
+     * @param strategy FRESH, SHARED, THREAD_LOCAL or POOL
+     * @param factory the factory for new instances
+     * @param poolSize the max number of instances in a POOL
+     */
+    public static <T> Instances<T> of(String strategy, Factory<T> factory,
+                                      int poolSize) throws Exception {
+        if (strategy.equals("FRESH")) {
+            return new Fresh<>(factory);
+        } else if (strategy.equals("SHARED")) {
+            return new Shared<>(factory);
+        } else if (strategy.equals("THREAD_LOCAL")) {
+            return new PerThread<>(factory);
+        } else if (strategy.equals("POOL")) {
+            return new Pool<>(factory, poolSize);
+        }
+
+        throw new IllegalArgumentException("Unknown strategy: " + strategy);
+    }
+
+    public abstract T acquire() throws Exception;
+
+    public void release(T instance) { }
+
+    /**
+     * Create a new instance per acquisition.
+     */
+    private static class Fresh<T> extends Instances<T> {
+
+        private final Factory<T> factory;
+
+        private Fresh(Factory<T> factory) {
+            this.factory = factory;
+        }
+
+        @Override
+        public T acquire() throws Exception {
+            return factory.create();
+        }
+    }
+
+    /**
+     * Share one instance, which is held by one thread at a time.
+     */
+    private static class Shared<T> extends Instances<T> {
+
+        private final T instance;
+        private final Lock lock = new ReentrantLock();
+
+        private Shared(Factory<T> factory) throws Exception {
+            instance = factory.create();
+        }
+
+        @Override
+        public T acquire() {
+            lock.lock();
+            return instance;
+        }
+
+        @Override
+        public void release(T instance) {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Create one instance per thread.
+     */
+    private static class PerThread<T> extends Instances<T> {
+
+        private final Factory<T> factory;
+        private final ThreadLocal<T> local = new ThreadLocal<>();
+
+        private PerThread(Factory<T> factory) {
+            this.factory = factory;
+        }
+
+        @Override
+        public T acquire() throws Exception {
+            T instance = local.get();
+            if (instance == null) {
+                instance = factory.create();
+                local.set(instance);
+            }
+            return instance;
+        }
+    }
+
+    /**
+     * Borrow an instance from a bounded pool, and wait if all are borrowed.
+     */
+    private static class Pool<T> extends Instances<T> {
+
+        private final BlockingQueue<T> pool;
+
+        private Pool(Factory<T> factory, int size) throws Exception {
+            pool = new ArrayBlockingQueue<>(size);
+            for (int i = 0; i < size; i++) {
+                pool.add(factory.create());
+            }
+        }
+
+        @Override
+        public T acquire() throws InterruptedException {
+            return pool.take();
+        }
+
+        @Override
+        public void release(T instance) {
+            pool.add(instance);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.github.jbench.runner;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.ExternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The profiler, which counts the stop-the-world GC pauses and their time in
+ * the GC log of every fork, e.g. the G1 young, remark and cleanup pauses, or
+ * the ZGC and Shenandoah pauses without their concurrent phases. Unlike the
+ * GC MXBeans, which GCProfiler reads, the log reports every pause with its
+ * duration. The results are averaged over the forks.
+ *
+ * Usage: add it to the JMH options, e.g.
+ * <pre>
+ * ./gradlew jmh --args="CipherBench.encrypt$ -prof com.github.jbench.runner.GcPauseProfiler"
+ * </pre>
+ * The log covers the whole fork, so the warmup pauses are counted too. It
+ * requires JDK 9 or later in the forks.
+ */
+public class GcPauseProfiler implements ExternalProfiler {
+
+    // e.g. "[0.345s][info][gc] GC(2) Pause Young (Normal) (G1 Evacuation Pause) 24M->4M(256M) 2.345ms"
+    // or "[1.234s][info][gc,phases] GC(0) Pause Mark Start 0.012ms"
+    private static final Pattern PAUSE = Pattern.compile(
+            ".*\\]\\s+GC\\(\\d+\\)\\s+(\\w+:\\s+)?Pause\\b.*\\s(\\d+\\.\\d+)ms\\s*");
+
+    private static final Path DIR = Paths.get(
+            System.getProperty("java.io.tmpdir"), "jbench-gc");
+
+    @Override
+    public Collection<String> addJVMInvokeOptions(BenchmarkParams params) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Collection<String> addJVMOptions(BenchmarkParams params) {
+        try {
+            Files.createDirectories(DIR);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        // The JVM replaces %p with its pid, so every fork has its own log
+        return Collections.singletonList("-Xlog:gc,gc+phases=info:file="
+                + DIR.resolve("gc-%p.log"));
+    }
+
+    @Override
+    public void beforeTrial(BenchmarkParams params) { }
+
+    @Override
+    public Collection<? extends Result> afterTrial(
+            BenchmarkResult result, long pid, File stdOut, File stdErr) {
+        Path log = DIR.resolve("gc-" + pid + ".log");
+        if (!Files.exists(log)) {
+            return Collections.emptyList();
+        }
+
+        try {
+            long pauses = 0;
+            double pauseTime = 0;
+            for (String line : Files.readAllLines(log, StandardCharsets.UTF_8)) {
+                Matcher matcher = PAUSE.matcher(line);
+                if (matcher.matches()) {
+                    pauses++;
+                    pauseTime += Double.parseDouble(matcher.group(2));
+                }
+            }
+            Files.delete(log);
+
+            return Arrays.asList(
+                    new ScalarResult("gc.pause.count", pauses, "counts",
+                            AggregationPolicy.AVG),
+                    new ScalarResult("gc.pause.time", pauseTime, "ms",
+                            AggregationPolicy.AVG));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public boolean allowPrintOut() {
+        return true;
+    }
+
+    @Override
+    public boolean allowPrintErr() {
+        return true;
+    }
+
+    @Override
+    public String getDescription() {
+        return "GC pause count and time from the GC log";
+    }
+}
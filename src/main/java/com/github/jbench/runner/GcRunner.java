@@ -0,0 +1,146 @@
+package com.github.jbench.runner;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Run the benchmarks with every combination of the garbage collectors and
+ * the heap sizes, and report the score, the allocation rate and the GC pause
+ * count and time for each benchmark and parameter combination. The relative
+ * score is the score over the one with the first configuration.
+ *
+ * Usage: GcRunner [--gcs G1,Parallel,Z] [--heaps 2048M] [JMH options], e.g.
+ * <pre>
+ * ./gradlew jmhGc --args="--gcs G1,Parallel,Z --heaps 512M,2048M CipherBench.encrypt$"
+ * </pre>
+ * The collectors are G1, Parallel, Serial, Z, Shenandoah and Epsilon, and the
+ * JVM, which runs the forks, must support them. Epsilon never collects, so it
+ * only suits the benchmarks, which allocate less than the heap in a fork.
+ *
+ * The configurations replace the @Fork jvmArgsAppend of the benchmarks.
+ * The allocation comes from GCProfiler over the measurement iterations, and
+ * the pauses from GcPauseProfiler per fork, warmup included.
+ */
+public class GcRunner {
+
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+        String[] gcs = RunnerUtils.option(
+                jmhArgs, "--gcs", "G1,Parallel,Z").split(",");
+        String[] heaps = RunnerUtils.option(
+                jmhArgs, "--heaps", "2048M").split(",");
+        Options options = new CommandLineOptions(
+                jmhArgs.toArray(new String[0]));
+
+        // benchmark label -> configuration -> result
+        Map<String, Map<String, RunResult>> results = new LinkedHashMap<>();
+        for (String gc : gcs) {
+            for (String heap : heaps) {
+                run(options, gc.trim(), heap.trim(), results);
+            }
+        }
+
+        report(results);
+    }
+
+    private static void run(Options options, String gc, String heap,
+                            Map<String, Map<String, RunResult>> results)
+            throws Exception {
+        List<String> jvmArgs = new ArrayList<>();
+        jvmArgs.add("-server");
+        jvmArgs.add("-Xms" + heap);
+        jvmArgs.add("-Xmx" + heap);
+        jvmArgs.addAll(gcArgs(gc));
+
+        Options runOptions = new OptionsBuilder().parent(options)
+                .jvmArgsAppend(jvmArgs.toArray(new String[0]))
+                .addProfiler(GCProfiler.class)
+                .addProfiler(GcPauseProfiler.class)
+                .build();
+        for (RunResult runResult : new Runner(runOptions).run()) {
+            results.computeIfAbsent(
+                    RunnerUtils.label(runResult.getParams()),
+                    label -> new LinkedHashMap<>())
+                    .put(gc + "," + heap, runResult);
+        }
+    }
+
+    private static List<String> gcArgs(String gc) {
+        if (gc.equals("G1")) {
+            return Arrays.asList("-XX:+UseG1GC");
+        } else if (gc.equals("Parallel")) {
+            return Arrays.asList("-XX:+UseParallelGC");
+        } else if (gc.equals("Serial")) {
+            return Arrays.asList("-XX:+UseSerialGC");
+        } else if (gc.equals("Z")) {
+            // ZGC is experimental before JDK 15
+            return Arrays.asList(
+                    "-XX:+UnlockExperimentalVMOptions", "-XX:+UseZGC");
+        } else if (gc.equals("Shenandoah")) {
+            return Arrays.asList(
+                    "-XX:+UnlockExperimentalVMOptions", "-XX:+UseShenandoahGC");
+        } else if (gc.equals("Epsilon")) {
+            return Arrays.asList(
+                    "-XX:+UnlockExperimentalVMOptions", "-XX:+UseEpsilonGC");
+        }
+
+        throw new IllegalArgumentException("Unknown GC: " + gc);
+    }
+
+    private static void report(Map<String, Map<String, RunResult>> results)
+            throws Exception {
+        try (PrintWriter csv = RunnerUtils.csv("gc")) {
+            String header = "benchmark,gc,heap,score,error,unit,relative score,"
+                    + "alloc rate (MB/sec),alloc (B/op),gc pauses per fork,"
+                    + "gc pause time per fork (ms)";
+            csv.println(header);
+            System.out.println(header);
+
+            for (Map.Entry<String, Map<String, RunResult>> entry : results.entrySet()) {
+                Map<String, RunResult> configResults = entry.getValue();
+                double baseScore = configResults.values().iterator().next()
+                        .getPrimaryResult().getScore();
+
+                for (Map.Entry<String, RunResult> configResult : configResults.entrySet()) {
+                    RunResult runResult = configResult.getValue();
+                    Result result = runResult.getPrimaryResult();
+                    Map<String, Result> secondaryResults
+                            = runResult.getSecondaryResults();
+
+                    String line = String.format(Locale.ROOT,
+                            "%s,%s,%.3f,%.3f,%s,%.3f,%.3f,%.3f,%.0f,%.3f",
+                            RunnerUtils.csvValue(entry.getKey()),
+                            configResult.getKey(),
+                            result.getScore(), result.getScoreError(),
+                            result.getScoreUnit(),
+                            result.getScore() / baseScore,
+                            score(secondaryResults, "gc.alloc.rate"),
+                            score(secondaryResults, "gc.alloc.rate.norm"),
+                            score(secondaryResults, "gc.pause.count"),
+                            score(secondaryResults, "gc.pause.time"));
+                    csv.println(line);
+                    System.out.println(line);
+                }
+            }
+        }
+    }
+
+    // The profilers may leave out a result, e.g. GCProfiler if no GC happened
+    private static double score(Map<String, Result> results, String name) {
+        Result result = results.get(name);
+        return result == null ? 0 : result.getScore();
+    }
+}
@@ -0,0 +1,208 @@
+package com.github.jbench.runner;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Run the benchmarks with the default HotSpot intrinsics, then with each
+ * intrinsic off, then with all of them off, each in its own forks, and report
+ * the speedup of the intrinsics for each benchmark and parameter combination.
+ * The speedup is the score with the intrinsic over the score without it, or
+ * the reverse for the time modes, so 2.0 means twice as fast.
+ *
+ * Usage: IntrinsicsRunner [--intrinsics UseAESIntrinsics,...] [JMH options],
+ * e.g.
+ * <pre>
+ * ./gradlew jmhIntrinsics --args="CipherBench.encrypt$ -p size=16384"
+ * </pre>
+ *
+ * The intrinsics, which the JVM doesn't have, or which are off by default,
+ * e.g. not supported by the CPU, are skipped. Some intrinsics depend on the
+ * others, e.g. UseAESCTRIntrinsics on UseAESIntrinsics, so switching one off
+ * may switch the others off too.
+ */
+public class IntrinsicsRunner {
+
+    private static final String[] INTRINSICS = {
+            "UseAESIntrinsics",
+            "UseAESCTRIntrinsics",
+            "UseGHASHIntrinsics",
+            "UseChaCha20Intrinsics",
+            "UsePoly1305Intrinsics",
+            "UseMD5Intrinsics",
+            "UseSHA1Intrinsics",
+            "UseSHA256Intrinsics",
+            "UseSHA512Intrinsics",
+            "UseSHA3Intrinsics",
+            "UseMontgomeryMultiplyIntrinsic",
+            "UseMontgomerySquareIntrinsic",
+            "UseMultiplyToLenIntrinsic",
+            "UseSquareToLenIntrinsic",
+            "UseMulAddIntrinsic"};
+
+    private static final String DEFAULT = "DEFAULT";
+    private static final String ALL = "ALL";
+
+    private static final Pattern FLAG = Pattern.compile(
+            "\\s*bool\\s+(\\w+)\\s+:?=\\s+(true|false)\\b.*");
+
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+        String intrinsicsOption = RunnerUtils.option(jmhArgs, "--intrinsics",
+                String.join(",", INTRINSICS));
+        Options options = new CommandLineOptions(
+                jmhArgs.toArray(new String[0]));
+
+        List<String> intrinsics = intrinsics(intrinsicsOption.split(","),
+                flags(options.getJvm().orElse(currentJvm())));
+        if (intrinsics.isEmpty()) {
+            throw new IllegalArgumentException("No intrinsics to switch off");
+        }
+
+        // benchmark label -> DEFAULT, intrinsic or ALL -> result
+        Map<String, Map<String, RunResult>> results = new LinkedHashMap<>();
+        run(options, DEFAULT, new ArrayList<>(), results);
+        for (String intrinsic : intrinsics) {
+            run(options, intrinsic, Arrays.asList(intrinsic), results);
+        }
+        if (intrinsics.size() > 1) {
+            run(options, ALL, intrinsics, results);
+        }
+
+        report(results);
+    }
+
+    private static void run(Options options, String name,
+                            List<String> disabledIntrinsics,
+                            Map<String, Map<String, RunResult>> results)
+            throws Exception {
+        List<String> jvmArgs = new ArrayList<>();
+        Collection<String> prepend = options.getJvmArgsPrepend().orElse(null);
+        if (prepend != null) {
+            jvmArgs.addAll(prepend);
+        }
+        jvmArgs.add("-XX:+UnlockDiagnosticVMOptions");
+        for (String intrinsic : disabledIntrinsics) {
+            jvmArgs.add("-XX:-" + intrinsic);
+        }
+
+        // Prepend the flags, so the @Fork jvmArgsAppend are still used
+        Options runOptions = new OptionsBuilder().parent(options)
+                .jvmArgsPrepend(jvmArgs.toArray(new String[0])).build();
+        for (RunResult runResult : new Runner(runOptions).run()) {
+            results.computeIfAbsent(
+                    RunnerUtils.label(runResult.getParams()),
+                    label -> new LinkedHashMap<>())
+                    .put(name, runResult);
+        }
+    }
+
+    private static List<String> intrinsics(String[] names,
+                                           Map<String, Boolean> flags) {
+        List<String> intrinsics = new ArrayList<>();
+        for (String name : names) {
+            String intrinsic = name.trim();
+            Boolean enabled = flags.get(intrinsic);
+            if (enabled == null) {
+                System.out.println("Skip " + intrinsic + ": not in this JVM");
+            } else if (!enabled) {
+                System.out.println("Skip " + intrinsic + ": off by default");
+            } else {
+                intrinsics.add(intrinsic);
+            }
+        }
+
+        return intrinsics;
+    }
+
+    // The boolean VM flags of the JVM, which runs the forks
+    private static Map<String, Boolean> flags(String jvm) throws Exception {
+        Process process = new ProcessBuilder(jvm,
+                "-XX:+UnlockDiagnosticVMOptions", "-XX:+PrintFlagsFinal",
+                "-version").redirectErrorStream(true).start();
+
+        Map<String, Boolean> flags = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher matcher = FLAG.matcher(line);
+                if (matcher.matches()) {
+                    flags.put(matcher.group(1),
+                            Boolean.parseBoolean(matcher.group(2)));
+                }
+            }
+        }
+        process.waitFor();
+
+        return flags;
+    }
+
+    private static String currentJvm() {
+        return System.getProperty("java.home")
+                + File.separator + "bin" + File.separator + "java";
+    }
+
+    private static void report(Map<String, Map<String, RunResult>> results)
+            throws Exception {
+        try (PrintWriter csv = RunnerUtils.csv("intrinsics")) {
+            String header = "benchmark,intrinsic,score,error,off score,"
+                    + "off error,unit,speedup";
+            csv.println(header);
+            System.out.println(header);
+
+            for (Map.Entry<String, Map<String, RunResult>> entry : results.entrySet()) {
+                Map<String, RunResult> runResults = entry.getValue();
+                RunResult baseRunResult = runResults.get(DEFAULT);
+                if (baseRunResult == null) {
+                    continue;
+                }
+
+                Result base = baseRunResult.getPrimaryResult();
+                boolean throughput = baseRunResult.getParams().getMode()
+                        == Mode.Throughput;
+                for (Map.Entry<String, RunResult> runResult : runResults.entrySet()) {
+                    if (runResult.getKey().equals(DEFAULT)) {
+                        continue;
+                    }
+
+                    Result off = runResult.getValue().getPrimaryResult();
+                    double speedup = throughput
+                            ? base.getScore() / off.getScore()
+                            : off.getScore() / base.getScore();
+
+                    String line = String.format(Locale.ROOT,
+                            "%s,%s,%.3f,%.3f,%.3f,%.3f,%s,%.3f",
+                            RunnerUtils.csvValue(entry.getKey()),
+                            runResult.getKey(),
+                            base.getScore(), base.getScoreError(),
+                            off.getScore(), off.getScoreError(),
+                            base.getScoreUnit(), speedup);
+                    csv.println(line);
+                    System.out.println(line);
+                }
+            }
+        }
+    }
+}
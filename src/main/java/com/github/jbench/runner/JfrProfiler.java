@@ -0,0 +1,258 @@
+package com.github.jbench.runner;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.ExternalProfiler;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.TextResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The profiler, which records a JFR file for each benchmark and parameter
+ * combination, and summarizes the top CPU methods, the top allocation sites
+ * and the lock contention in a text file next to it. The summary is also
+ * printed with the results.
+ *
+ * Usage: add it to the JMH options, e.g.
+ * <pre>
+ * ./gradlew jmh --args="SignatureBench.sign -prof com.github.jbench.runner.JfrProfiler:dir=jfr;top=20"
+ * </pre>
+ * The recording starts after the warmup time, and covers the measurement of
+ * the last fork. It requires JDK 11 or later.
+ */
+public class JfrProfiler implements ExternalProfiler {
+
+    private final Path dir;
+    private final int top;
+
+    public JfrProfiler(String initLine) {
+        Map<String, String> options = new HashMap<>();
+        for (String option : initLine.split(";")) {
+            int index = option.indexOf('=');
+            if (index > 0) {
+                options.put(option.substring(0, index).trim(),
+                        option.substring(index + 1).trim());
+            } else if (!option.trim().isEmpty()) {
+                throw new IllegalArgumentException(
+                        "Unknown option: " + option);
+            }
+        }
+
+        dir = Paths.get(options.getOrDefault("dir", "jfr")).toAbsolutePath();
+        top = Integer.parseInt(options.getOrDefault("top", "20"));
+    }
+
+    @Override
+    public Collection<String> addJVMInvokeOptions(BenchmarkParams params) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Collection<String> addJVMOptions(BenchmarkParams params) {
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        IterationParams warmup = params.getWarmup();
+        long delay = warmup.getCount() * warmup.getTime().convertTo(
+                TimeUnit.MILLISECONDS);
+
+        return Collections.singletonList(String.format(Locale.ROOT,
+                "-XX:StartFlightRecording=delay=%dms,settings=profile,"
+                        + "dumponexit=true,filename=%s",
+                delay, recording(params)));
+    }
+
+    @Override
+    public void beforeTrial(BenchmarkParams params) { }
+
+    @Override
+    public Collection<? extends Result> afterTrial(
+            BenchmarkResult result, long pid, File stdOut, File stdErr) {
+        Path recording = recording(result.getParams());
+        if (!Files.exists(recording)) {
+            return Collections.emptyList();
+        }
+
+        try {
+            String summary = summary(recording, top);
+            Path summaryFile = Paths.get(
+                    recording.toString().replaceAll("\\.jfr$", ".txt"));
+            Files.write(summaryFile, summary.getBytes(StandardCharsets.UTF_8));
+            return Collections.singletonList(new TextResult(summary, "jfr"));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Every fork overwrites the recording of the previous one
+    private Path recording(BenchmarkParams params) {
+        String name = RunnerUtils.label(params).replaceAll("[^\\w.=-]+", "_");
+        return dir.resolve(name + ".jfr");
+    }
+
+    @Override
+    public boolean allowPrintOut() {
+        return true;
+    }
+
+    @Override
+    public boolean allowPrintErr() {
+        return true;
+    }
+
+    @Override
+    public String getDescription() {
+        return "JFR recording with the CPU, allocation and lock summaries";
+    }
+
+    /**
+     * Summarize the execution samples, the allocation samples and the
+     * contended monitors and parks in a recording.
+     */
+    public static String summary(Path recording, int top) throws IOException {
+        Counter selfCpu = new Counter();
+        Counter totalCpu = new Counter();
+        Counter sampledAllocations = new Counter();
+        Counter tlabAllocations = new Counter();
+        Counter locks = new Counter();
+
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                String type = event.getEventType().getName();
+                if (type.equals("jdk.ExecutionSample")) {
+                    List<String> methods = methods(event.getStackTrace());
+                    if (!methods.isEmpty()) {
+                        selfCpu.add(methods.get(0), 1);
+                        for (String method : new HashSet<>(methods)) {
+                            totalCpu.add(method, 1);
+                        }
+                    }
+                } else if (type.equals("jdk.ObjectAllocationSample")) {
+                    sampledAllocations.add(allocationSite(event),
+                            event.getLong("weight"));
+                } else if (type.equals("jdk.ObjectAllocationInNewTLAB")) {
+                    tlabAllocations.add(allocationSite(event),
+                            event.getLong("tlabSize"));
+                } else if (type.equals("jdk.ObjectAllocationOutsideTLAB")) {
+                    tlabAllocations.add(allocationSite(event),
+                            event.getLong("allocationSize"));
+                } else if (type.equals("jdk.JavaMonitorEnter")) {
+                    locks.add("monitor " + className(event, "monitorClass")
+                                    + " at " + topMethod(event),
+                            event.getDuration().toNanos());
+                } else if (type.equals("jdk.ThreadPark")) {
+                    locks.add("park " + className(event, "parkedClass")
+                                    + " at " + topMethod(event),
+                            event.getDuration().toNanos());
+                }
+            }
+        }
+
+        // The allocation samples are in JDK 16 and later, and weigh more
+        // precisely than the TLAB events
+        Counter allocations = sampledAllocations.total > 0
+                ? sampledAllocations : tlabAllocations;
+
+        StringBuilder summary = new StringBuilder();
+        summary.append("JFR recording: ").append(recording).append('\n');
+        summary.append(String.format(Locale.ROOT,
+                "%nTop CPU methods, self (%d samples)%n", selfCpu.total));
+        selfCpu.appendPercentages(summary, top, selfCpu.total);
+        summary.append(String.format(Locale.ROOT,
+                "%nTop CPU methods, total (%d samples)%n", selfCpu.total));
+        totalCpu.appendPercentages(summary, top, selfCpu.total);
+        summary.append(String.format(Locale.ROOT,
+                "%nTop allocation sites (%.1f MB)%n",
+                allocations.total / 1024.0 / 1024.0));
+        allocations.appendPercentages(summary, top, allocations.total);
+        summary.append(String.format(Locale.ROOT,
+                "%nLock contention (%.3f ms)%n", locks.total / 1e6));
+        for (Map.Entry<String, Long> entry : locks.top(top)) {
+            summary.append(String.format(Locale.ROOT, "%10.3f ms  %s%n",
+                    entry.getValue() / 1e6, entry.getKey()));
+        }
+        return summary.toString();
+    }
+
+    private static List<String> methods(RecordedStackTrace stackTrace) {
+        List<String> methods = new ArrayList<>();
+        if (stackTrace != null) {
+            for (RecordedFrame frame : stackTrace.getFrames()) {
+                if (frame.isJavaFrame()) {
+                    methods.add(frame.getMethod().getType().getName()
+                            + "." + frame.getMethod().getName());
+                }
+            }
+        }
+        return methods;
+    }
+
+    private static String topMethod(RecordedEvent event) {
+        List<String> methods = methods(event.getStackTrace());
+        return methods.isEmpty() ? "unknown" : methods.get(0);
+    }
+
+    private static String allocationSite(RecordedEvent event) {
+        return className(event, "objectClass") + " at " + topMethod(event);
+    }
+
+    private static String className(RecordedEvent event, String field) {
+        return event.getClass(field) == null
+                ? "unknown" : event.getClass(field).getName();
+    }
+
+    /**
+     * The values summed by key, e.g. the samples by method.
+     */
+    private static class Counter {
+
+        private final Map<String, Long> values = new HashMap<>();
+        private long total;
+
+        private void add(String key, long value) {
+            values.merge(key, value, Long::sum);
+            total += value;
+        }
+
+        private List<Map.Entry<String, Long>> top(int top) {
+            List<Map.Entry<String, Long>> entries
+                    = new ArrayList<>(values.entrySet());
+            entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+            return entries.subList(0, Math.min(top, entries.size()));
+        }
+
+        // The percentages of the top values in the total, which may be
+        // another counter's, e.g. the self samples for the total CPU methods
+        private void appendPercentages(StringBuilder summary, int top,
+                                       long total) {
+            for (Map.Entry<String, Long> entry : top(top)) {
+                summary.append(String.format(Locale.ROOT, "%9.2f%%  %s%n",
+                        entry.getValue() * 100.0 / total, entry.getKey()));
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.jbench.runner;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.util.Statistics;
+
+import java.io.PrintWriter;
+import java.util.Locale;
+
+/**
+ * Run the SampleTime benchmarks, the *Latency benchmarks by default, and
+ * report the latency percentiles for each benchmark and parameter combination.
+ * The benchmarks in the other modes are skipped in the report, as their
+ * samples are the iteration scores, not the latencies.
+ *
+ * Usage: LatencyRunner [JMH options], e.g.
+ * <pre>
+ * ./gradlew jmhLatency --args="SignatureBench.signLatency -p size=64"
+ * </pre>
+ */
+public class LatencyRunner {
+
+    private static final double[] PERCENTILES
+            = {0, 50, 90, 95, 99, 99.9, 99.99, 100};
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions options = new CommandLineOptions(args);
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(options);
+        if (options.getIncludes().isEmpty()) {
+            builder.include(".*Latency$");
+        }
+
+        try (PrintWriter csv = RunnerUtils.csv("latency")) {
+            StringBuilder header = new StringBuilder("benchmark,samples,unit");
+            for (double percentile : PERCENTILES) {
+                header.append(",p").append(percentile(percentile));
+            }
+            csv.println(header);
+            System.out.println(header);
+
+            for (RunResult runResult : new Runner(builder.build()).run()) {
+                if (runResult.getParams().getMode() != Mode.SampleTime) {
+                    System.out.println("Skip " + RunnerUtils.label(
+                            runResult.getParams()) + ": not in SampleTime mode");
+                    continue;
+                }
+
+                Result result = runResult.getPrimaryResult();
+                Statistics statistics = result.getStatistics();
+
+                StringBuilder line = new StringBuilder();
+                line.append(RunnerUtils.csvValue(
+                        RunnerUtils.label(runResult.getParams())));
+                line.append(',').append(statistics.getN());
+                line.append(',').append(result.getScoreUnit());
+                for (double percentile : PERCENTILES) {
+                    line.append(String.format(Locale.ROOT, ",%.3f",
+                            statistics.getPercentile(percentile)));
+                }
+                csv.println(line);
+                System.out.println(line);
+            }
+        }
+    }
+
+    // e.g. 50, 99.9
+    private static String percentile(double percentile) {
+        return percentile == (long) percentile
+                ? Long.toString((long) percentile)
+                : Double.toString(percentile);
+    }
+}
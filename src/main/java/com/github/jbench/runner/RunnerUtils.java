@@ -0,0 +1,82 @@
+package com.github.jbench.runner;
+
+import com.github.jbench.BenchmarkUtils;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * The utilities for the runners, which run the JMH benchmarks several times
+ * and combine the results into a report.
+ */
+public class RunnerUtils {
+
+    /**
+     * Remove a runner option, e.g. "--threads 1,2,4", from the arguments,
+     * so the remaining arguments can be parsed as JMH options.
+     *
+     * @return the option value, or the default value if no such option
+     */
+    public static String option(List<String> args, String name,
+                                String defaultValue) {
+        int index = args.indexOf(name);
+        if (index < 0) {
+            return defaultValue;
+        }
+
+        if (index == args.size() - 1) {
+            throw new IllegalArgumentException("No value for " + name);
+        }
+
+        args.remove(index);
+        return args.remove(index);
+    }
+
+    /**
+     * The benchmark name with the parameters, e.g.
+     * "com.github.jbench.security.crypto.DigestBench.digest product=JDK".
+     */
+    public static String label(BenchmarkParams params) {
+        return label(params, null);
+    }
+
+    /**
+     * The benchmark name with the parameters except the excluded one.
+     */
+    public static String label(BenchmarkParams params, String excludedParam) {
+        StringJoiner label = new StringJoiner(" ");
+        label.add(params.getBenchmark());
+        for (String key : params.getParamsKeys()) {
+            if (!key.equals(excludedParam)) {
+                label.add(key + "=" + params.getParam(key));
+            }
+        }
+        return label.toString();
+    }
+
+    /**
+     * Create a CSV report file, e.g. scaling-20231010120000.csv, in the
+     * current directory.
+     */
+    public static PrintWriter csv(String name) throws IOException {
+        Path path = Paths.get(name + "-" + BenchmarkUtils.formattedTime() + ".csv");
+        System.out.println("Report: " + path.toAbsolutePath());
+        return new PrintWriter(
+                Files.newBufferedWriter(path, StandardCharsets.UTF_8));
+    }
+
+    public static String csvValue(String value) {
+        if (value.contains(",") || value.contains("\"")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+
+        return value;
+    }
+}
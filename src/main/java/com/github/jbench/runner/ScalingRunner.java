@@ -0,0 +1,137 @@
+package com.github.jbench.runner;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Run the benchmarks with 1, 2, 4 ... N threads, and report the scaling
+ * efficiency for each benchmark and parameter combination. The efficiency is
+ * the speedup over the fewest threads divided by the ratio of the threads,
+ * so 1.0 means linear scaling.
+ *
+ * Usage: ScalingRunner [--threads 1,2,4,8] [JMH options], e.g.
+ * <pre>
+ * ./gradlew jmhScaling --args="--threads 1,2,4,8 ScalingBench.digest"
+ * </pre>
+ * N is the number of the available processors by default.
+ *
+ * The benchmarks, which control their own parallelism with a parameter, are
+ * run once, and scale over the values of the parameter instead, e.g.
+ * <pre>
+ * ./gradlew jmhScaling --args="--param parallelism FileHashBench.merkle"
+ * </pre>
+ */
+public class ScalingRunner {
+
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+        String threadsOption = RunnerUtils.option(jmhArgs, "--threads", null);
+        String param = RunnerUtils.option(jmhArgs, "--param", null);
+        Options options = new CommandLineOptions(
+                jmhArgs.toArray(new String[0]));
+
+        if (param == null) {
+            report(scaleThreads(options, threadCounts(threadsOption)), "threads");
+        } else {
+            report(scaleParam(options, param), param);
+        }
+    }
+
+    // benchmark label -> thread count -> result
+    private static Map<String, Map<Integer, Result>> scaleThreads(
+            Options options, int[] threadCounts) throws Exception {
+        Map<String, Map<Integer, Result>> results = new LinkedHashMap<>();
+        for (int threads : threadCounts) {
+            Options threadOptions = new OptionsBuilder()
+                    .parent(options).threads(threads).build();
+            for (RunResult runResult : new Runner(threadOptions).run()) {
+                results.computeIfAbsent(
+                        RunnerUtils.label(runResult.getParams()),
+                        label -> new TreeMap<>())
+                        .put(threads, runResult.getPrimaryResult());
+            }
+        }
+
+        return results;
+    }
+
+    // benchmark label without the parameter -> parameter value -> result
+    private static Map<String, Map<Integer, Result>> scaleParam(
+            Options options, String param) throws Exception {
+        Map<String, Map<Integer, Result>> results = new LinkedHashMap<>();
+        for (RunResult runResult : new Runner(options).run()) {
+            BenchmarkParams params = runResult.getParams();
+
+            // The benchmarks without the parameter run sequentially
+            String value = params.getParam(param);
+            results.computeIfAbsent(RunnerUtils.label(params, param),
+                    label -> new TreeMap<>())
+                    .put(value == null ? 1 : Integer.parseInt(value),
+                            runResult.getPrimaryResult());
+        }
+
+        return results;
+    }
+
+    private static int[] threadCounts(String option) {
+        TreeSet<Integer> threadCounts = new TreeSet<>();
+        if (option != null) {
+            for (String threads : option.split(",")) {
+                threadCounts.add(Integer.parseInt(threads.trim()));
+            }
+        } else {
+            int processors = Runtime.getRuntime().availableProcessors();
+            for (int threads = 1; threads < processors; threads *= 2) {
+                threadCounts.add(threads);
+            }
+            threadCounts.add(processors);
+        }
+
+        return threadCounts.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static void report(Map<String, Map<Integer, Result>> results,
+                               String scaleName) throws Exception {
+        try (PrintWriter csv = RunnerUtils.csv("scaling")) {
+            String header = "benchmark," + scaleName
+                    + ",score,error,unit,speedup,efficiency";
+            csv.println(header);
+            System.out.println(header);
+
+            for (Map.Entry<String, Map<Integer, Result>> entry : results.entrySet()) {
+                Map<Integer, Result> threadResults = entry.getValue();
+                int baseThreads = threadResults.keySet().iterator().next();
+                double baseScore = threadResults.get(baseThreads).getScore();
+
+                for (Map.Entry<Integer, Result> threadResult : threadResults.entrySet()) {
+                    int threads = threadResult.getKey();
+                    Result result = threadResult.getValue();
+                    double speedup = result.getScore() / baseScore;
+                    double efficiency = speedup * baseThreads / threads;
+
+                    String line = String.format(Locale.ROOT, "%s,%d,%.3f,%.3f,%s,%.3f,%.3f",
+                            RunnerUtils.csvValue(entry.getKey()), threads,
+                            result.getScore(), result.getScoreError(),
+                            result.getScoreUnit(), speedup, efficiency);
+                    csv.println(line);
+                    System.out.println(line);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.github.jbench.runner;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Run the benchmarks without warmup in many short iterations, and report the
+ * warm-up curve, namely the throughput of each iteration averaged over the
+ * forks, and how many operations it takes to reach the steady state.
+ *
+ * The steady score is the mean of the last quarter of the iterations. The
+ * steady state is reached at the first iteration, from which on all the
+ * scores are within the tolerance of the steady score. If the last score is
+ * not, the steady state is not reached, and its columns are empty.
+ *
+ * Usage: WarmupRunner [--iterations 100] [--time 100ms] [--tolerance 0.1]
+ * [JMH options], e.g.
+ * <pre>
+ * ./gradlew jmhWarmup --args="CipherBench.encrypt$ -p size=1024"
+ * </pre>
+ */
+public class WarmupRunner {
+
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+        int iterations = Integer.parseInt(
+                RunnerUtils.option(jmhArgs, "--iterations", "100"));
+        TimeValue time = TimeValue.fromString(
+                RunnerUtils.option(jmhArgs, "--time", "100ms"));
+        double tolerance = Double.parseDouble(
+                RunnerUtils.option(jmhArgs, "--tolerance", "0.1"));
+        Options options = new CommandLineOptions(
+                jmhArgs.toArray(new String[0]));
+
+        Options runOptions = new OptionsBuilder().parent(options)
+                .mode(Mode.Throughput)
+                .timeUnit(TimeUnit.SECONDS)
+                .warmupIterations(0)
+                .measurementIterations(iterations)
+                .measurementTime(time)
+                .build();
+        Collection<RunResult> runResults = new Runner(runOptions).run();
+
+        report(runResults, tolerance);
+    }
+
+    private static void report(Collection<RunResult> runResults,
+                               double tolerance) throws Exception {
+        try (PrintWriter curveCsv = RunnerUtils.csv("warmup-curve");
+             PrintWriter csv = RunnerUtils.csv("warmup")) {
+            curveCsv.println("benchmark,iteration,score,unit,total ops");
+
+            String header = "benchmark,first score,steady score,unit,"
+                    + "steady iteration,ops to steady state";
+            csv.println(header);
+            System.out.println(header);
+
+            for (RunResult runResult : runResults) {
+                String label = RunnerUtils.csvValue(
+                        RunnerUtils.label(runResult.getParams()));
+                String unit = runResult.getPrimaryResult().getScoreUnit();
+
+                Curve curve = new Curve(runResult.getBenchmarkResults());
+                long totalOps = 0;
+                for (int i = 0; i < curve.scores.length; i++) {
+                    totalOps += curve.ops[i];
+                    curveCsv.println(String.format(Locale.ROOT,
+                            "%s,%d,%.3f,%s,%d", label, i + 1,
+                            curve.scores[i], unit, totalOps));
+                }
+
+                int steadyIteration = curve.steadyIteration(tolerance);
+                String steadyState = steadyIteration < curve.scores.length
+                        ? (steadyIteration + 1) + ","
+                                + curve.opsBefore(steadyIteration)
+                        : ",";
+                String line = String.format(Locale.ROOT,
+                        "%s,%.3f,%.3f,%s,%s", label,
+                        curve.scores[0], curve.steadyScore(), unit,
+                        steadyState);
+                csv.println(line);
+                System.out.println(line);
+            }
+        }
+    }
+
+    /**
+     * The scores and the operations per iteration, averaged over the forks.
+     */
+    private static class Curve {
+
+        private final double[] scores;
+        private final long[] ops;
+
+        private Curve(Collection<BenchmarkResult> forkResults) {
+            int iterations = Integer.MAX_VALUE;
+            for (BenchmarkResult forkResult : forkResults) {
+                iterations = Math.min(iterations,
+                        forkResult.getIterationResults().size());
+            }
+
+            scores = new double[iterations];
+            ops = new long[iterations];
+            for (BenchmarkResult forkResult : forkResults) {
+                Iterator<IterationResult> iterationResults
+                        = forkResult.getIterationResults().iterator();
+                for (int i = 0; i < iterations; i++) {
+                    IterationResult iterationResult = iterationResults.next();
+                    scores[i] += iterationResult.getPrimaryResult().getScore()
+                            / forkResults.size();
+                    ops[i] += iterationResult.getMetadata().getMeasuredOps()
+                            / forkResults.size();
+                }
+            }
+        }
+
+        private double steadyScore() {
+            int from = scores.length - Math.max(scores.length / 4, 1);
+            double sum = 0;
+            for (int i = from; i < scores.length; i++) {
+                sum += scores[i];
+            }
+            return sum / (scores.length - from);
+        }
+
+        private int steadyIteration(double tolerance) {
+            double steadyScore = steadyScore();
+            int iteration = scores.length;
+            while (iteration > 0 && Math.abs(scores[iteration - 1] - steadyScore)
+                    <= tolerance * steadyScore) {
+                iteration--;
+            }
+            return iteration;
+        }
+
+        private long opsBefore(int iteration) {
+            long sum = 0;
+            for (int i = 0; i < iteration; i++) {
+                sum += ops[i];
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.github.jbench.security.bc;
+
+import com.github.jbench.BenchmarkUtils;
+import com.github.jbench.ThroughputCounter;
+import org.bouncycastle.crypto.BlockCipher;
+import org.bouncycastle.crypto.BufferedBlockCipher;
+import org.bouncycastle.crypto.CipherParameters;
+import org.bouncycastle.crypto.DefaultBufferedBlockCipher;
+import org.bouncycastle.crypto.InvalidCipherTextException;
+import org.bouncycastle.crypto.StreamCipher;
+import org.bouncycastle.crypto.engines.AESEngine;
+import org.bouncycastle.crypto.engines.ChaCha7539Engine;
+import org.bouncycastle.crypto.modes.AEADCipher;
+import org.bouncycastle.crypto.modes.CBCBlockCipher;
+import org.bouncycastle.crypto.modes.ChaCha20Poly1305;
+import org.bouncycastle.crypto.modes.GCMBlockCipher;
+import org.bouncycastle.crypto.modes.SICBlockCipher;
+import org.bouncycastle.crypto.paddings.PaddedBufferedBlockCipher;
+import org.bouncycastle.crypto.params.AEADParameters;
+import org.bouncycastle.crypto.params.KeyParameter;
+import org.bouncycastle.crypto.params.ParametersWithIV;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmarks for the Bouncy Castle lightweight ciphers, which bypass JCA.
+ * The transformations, sizes and IV rotation follow CipherBench, and the
+ * baseline is CipherBench with product BC.
+ */
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 2, jvmArgsAppend = {"-server", "-Xms2048M", "-Xmx2048M", "-XX:+UseG1GC"})
+@Threads(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BcCipherBench {
+
+    /**
+     * The common operations of the block, AEAD and stream ciphers.
+     */
+    interface Engine {
+
+        void init(boolean forEncryption, CipherParameters params);
+
+        int getOutputSize(int length);
+
+        int doFinal(byte[] input, int inputOffset, int inputLength,
+                    byte[] output, int outputOffset)
+                throws InvalidCipherTextException;
+    }
+
+    static class BlockEngine implements Engine {
+
+        private final BufferedBlockCipher cipher;
+
+        BlockEngine(BufferedBlockCipher cipher) {
+            this.cipher = cipher;
+        }
+
+        @Override
+        public void init(boolean forEncryption, CipherParameters params) {
+            cipher.init(forEncryption, params);
+        }
+
+        @Override
+        public int getOutputSize(int length) {
+            return cipher.getOutputSize(length);
+        }
+
+        @Override
+        public int doFinal(byte[] input, int inputOffset, int inputLength,
+                           byte[] output, int outputOffset)
+                throws InvalidCipherTextException {
+            int length = cipher.processBytes(
+                    input, inputOffset, inputLength, output, outputOffset);
+            return length + cipher.doFinal(output, outputOffset + length);
+        }
+    }
+
+    static class AeadEngine implements Engine {
+
+        private final AEADCipher cipher;
+
+        AeadEngine(AEADCipher cipher) {
+            this.cipher = cipher;
+        }
+
+        @Override
+        public void init(boolean forEncryption, CipherParameters params) {
+            cipher.init(forEncryption, params);
+        }
+
+        @Override
+        public int getOutputSize(int length) {
+            return cipher.getOutputSize(length);
+        }
+
+        @Override
+        public int doFinal(byte[] input, int inputOffset, int inputLength,
+                           byte[] output, int outputOffset)
+                throws InvalidCipherTextException {
+            int length = cipher.processBytes(
+                    input, inputOffset, inputLength, output, outputOffset);
+            return length + cipher.doFinal(output, outputOffset + length);
+        }
+    }
+
+    static class StreamEngine implements Engine {
+
+        private final StreamCipher cipher;
+
+        StreamEngine(StreamCipher cipher) {
+            this.cipher = cipher;
+        }
+
+        @Override
+        public void init(boolean forEncryption, CipherParameters params) {
+            cipher.init(forEncryption, params);
+        }
+
+        @Override
+        public int getOutputSize(int length) {
+            return length;
+        }
+
+        @Override
+        public int doFinal(byte[] input, int inputOffset, int inputLength,
+                           byte[] output, int outputOffset) {
+            return cipher.processBytes(
+                    input, inputOffset, inputLength, output, outputOffset);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public abstract static class CipherProvider {
+
+        @Param({"AES/CBC/NoPadding",
+                "AES/CBC/PKCS5Padding",
+                "AES/CTR/NoPadding",
+                "AES/ECB/NoPadding",
+                "AES/ECB/PKCS5Padding",
+                "AES/GCM/NoPadding",
+                "ChaCha20",
+                "ChaCha20-Poly1305"})
+        String transformation;
+
+        @Param({"16", "64", "256", "1024", "4096", "16384", "65536",
+                "262144", "1048576", "4194304", "16777216"})
+        int size;
+
+        byte[] message;
+        double sizeInMB;
+
+        KeyParameter key;
+        BenchmarkUtils.RotatingIvs ivs;
+        CipherParameters[] params;
+
+        Engine engine;
+        byte[] output;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            message = BenchmarkUtils.bytes(size);
+            sizeInMB = BenchmarkUtils.toMB(size);
+
+            key = new KeyParameter(transformation.contains("ChaCha20")
+                    ? BenchmarkUtils.KEY_32 : BenchmarkUtils.KEY_16);
+            ivs = new BenchmarkUtils.RotatingIvs(
+                    transformation.contains("ChaCha20") ? 12 : 16, ivCount());
+            params = new CipherParameters[ivs.count()];
+            for (int i = 0; i < params.length; i++) {
+                params[i] = params(ivs.get(i));
+            }
+
+            Engine encrypter = engine();
+            encrypter.init(true, params[0]);
+            output = new byte[encrypter.getOutputSize(size)];
+
+            engine = engine();
+            engine.init(forEncryption(), params[0]);
+        }
+
+        /**
+         * Init the engine with the next IV.
+         */
+        void nextIv() {
+            ivs.next();
+            engine.init(forEncryption(), params[ivs.index()]);
+        }
+
+        abstract boolean forEncryption();
+
+        int ivCount() {
+            return 16;
+        }
+
+        Engine engine() {
+            if (transformation.equals("AES/CBC/NoPadding")) {
+                return block(CBCBlockCipher.newInstance(AESEngine.newInstance()));
+            } else if (transformation.equals("AES/CBC/PKCS5Padding")) {
+                return new BlockEngine(new PaddedBufferedBlockCipher(
+                        CBCBlockCipher.newInstance(AESEngine.newInstance())));
+            } else if (transformation.equals("AES/CTR/NoPadding")) {
+                return block(SICBlockCipher.newInstance(AESEngine.newInstance()));
+            } else if (transformation.equals("AES/ECB/NoPadding")) {
+                return block(AESEngine.newInstance());
+            } else if (transformation.equals("AES/ECB/PKCS5Padding")) {
+                return new BlockEngine(new PaddedBufferedBlockCipher(
+                        AESEngine.newInstance()));
+            } else if (transformation.equals("AES/GCM/NoPadding")) {
+                return new AeadEngine(
+                        GCMBlockCipher.newInstance(AESEngine.newInstance()));
+            } else if (transformation.equals("ChaCha20")) {
+                return new StreamEngine(new ChaCha7539Engine());
+            } else if (transformation.equals("ChaCha20-Poly1305")) {
+                return new AeadEngine(new ChaCha20Poly1305());
+            }
+
+            throw new IllegalArgumentException(
+                    "Unknown transformation: " + transformation);
+        }
+
+        private static Engine block(BlockCipher cipher) {
+            return new BlockEngine(new DefaultBufferedBlockCipher(cipher));
+        }
+
+        private CipherParameters params(byte[] iv) {
+            if (transformation.contains("ECB")) {
+                return key;
+            } else if (transformation.contains("GCM")
+                    || transformation.equals("ChaCha20-Poly1305")) {
+                return new AEADParameters(key, 128, iv);
+            } else {
+                return new ParametersWithIV(key, iv);
+            }
+        }
+    }
+
+    public static class Encrypter extends CipherProvider {
+
+        boolean forEncryption() {
+            return true;
+        }
+    }
+
+    public static class Decrypter extends CipherProvider {
+
+        byte[][] ciphertexts;
+
+        boolean forEncryption() {
+            return false;
+        }
+
+        // Alternating two IVs is enough, and keeps the ciphertexts small
+        @Override
+        int ivCount() {
+            return 2;
+        }
+
+        @Override
+        public void setup() throws Exception {
+            super.setup();
+
+            Engine encrypter = engine();
+            ciphertexts = new byte[params.length][];
+            for (int i = 0; i < params.length; i++) {
+                encrypter.init(true, params[i]);
+                byte[] ciphertext = new byte[encrypter.getOutputSize(size)];
+                encrypter.doFinal(message, 0, size, ciphertext, 0);
+                ciphertexts[i] = ciphertext;
+            }
+        }
+
+        byte[] ciphertext() {
+            return ciphertexts[ivs.index()];
+        }
+    }
+
+    @Benchmark
+    public byte[] encrypt(Encrypter encrypter, ThroughputCounter counter)
+            throws InvalidCipherTextException {
+        counter.megabytes += encrypter.sizeInMB;
+        encrypter.nextIv();
+        byte[] message = encrypter.message;
+        byte[] output = new byte[encrypter.engine.getOutputSize(message.length)];
+        encrypter.engine.doFinal(message, 0, message.length, output, 0);
+        return output;
+    }
+
+    /**
+     * Decrypt into a new array. The plaintext of the padded transformations
+     * is shorter than the array, and is not copied out.
+     */
+    @Benchmark
+    public byte[] decrypt(Decrypter decrypter, ThroughputCounter counter)
+            throws InvalidCipherTextException {
+        counter.megabytes += decrypter.sizeInMB;
+        decrypter.nextIv();
+        byte[] ciphertext = decrypter.ciphertext();
+        byte[] output = new byte[decrypter.engine.getOutputSize(ciphertext.length)];
+        decrypter.engine.doFinal(ciphertext, 0, ciphertext.length, output, 0);
+        return output;
+    }
+
+    /**
+     * Encrypt into the pre-allocated output array.
+     */
+    @Benchmark
+    public int encryptInto(Encrypter encrypter, ThroughputCounter counter)
+            throws InvalidCipherTextException {
+        counter.megabytes += encrypter.sizeInMB;
+        encrypter.nextIv();
+        return encrypter.engine.doFinal(
+                encrypter.message, 0, encrypter.message.length,
+                encrypter.output, 0);
+    }
+}
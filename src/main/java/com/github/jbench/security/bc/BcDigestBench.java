@@ -0,0 +1,68 @@
+package com.github.jbench.security.bc;
+
+import com.github.jbench.BenchmarkUtils;
+import com.github.jbench.ThroughputCounter;
+import org.bouncycastle.crypto.Digest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmarks for the Bouncy Castle lightweight digests, which bypass JCA.
+ * The baseline is DigestBench with product BC.
+ */
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 2, jvmArgsAppend = {"-server", "-Xms2048M", "-Xmx2048M", "-XX:+UseG1GC"})
+@Threads(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BcDigestBench {
+
+    @State(Scope.Benchmark)
+    public static class DigestProvider {
+
+        @Param({"SHA-1", "SHA-224", "SHA-256", "SHA-384", "SHA-512/224",
+                "SHA-512/256", "SHA3-224", "SHA3-256", "SHA3-384", "SHA3-512"})
+        String algorithm;
+
+        @Param({"16", "64", "256", "1024", "4096", "16384", "65536",
+                "262144", "1048576", "4194304", "16777216"})
+        int size;
+
+        byte[] message;
+        double sizeInMB;
+
+        Digest digest;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            message = BenchmarkUtils.bytes(size);
+            sizeInMB = BenchmarkUtils.toMB(size);
+
+            digest = BcEngines.digest(algorithm);
+        }
+    }
+
+    @Benchmark
+    public byte[] digest(DigestProvider provider, ThroughputCounter counter) {
+        counter.megabytes += provider.sizeInMB;
+        Digest digest = provider.digest;
+        digest.update(provider.message, 0, provider.message.length);
+        byte[] output = new byte[digest.getDigestSize()];
+        digest.doFinal(output, 0);
+        return output;
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.jbench.security.bc;
+
+import org.bouncycastle.crypto.Digest;
+import org.bouncycastle.crypto.digests.SHA1Digest;
+import org.bouncycastle.crypto.digests.SHA224Digest;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.digests.SHA384Digest;
+import org.bouncycastle.crypto.digests.SHA3Digest;
+import org.bouncycastle.crypto.digests.SHA512tDigest;
+import org.bouncycastle.crypto.params.AsymmetricKeyParameter;
+import org.bouncycastle.crypto.util.PrivateKeyFactory;
+import org.bouncycastle.crypto.util.PublicKeyFactory;
+
+import java.io.IOException;
+import java.security.KeyPair;
+
+/**
+ * The lightweight engines for the JCA algorithm names, so the benchmarks in
+ * this package can take the same parameters as the JCA-based ones.
+ */
+class BcEngines {
+
+    /**
+     * Create the digest for a JCA digest name, e.g. SHA-256 or SHA3-256.
+     */
+    static Digest digest(String algorithm) {
+        if (algorithm.equals("SHA-1")) {
+            return new SHA1Digest();
+        } else if (algorithm.equals("SHA-224")) {
+            return new SHA224Digest();
+        } else if (algorithm.equals("SHA-256")) {
+            return new SHA256Digest();
+        } else if (algorithm.equals("SHA-384")) {
+            return new SHA384Digest();
+        } else if (algorithm.equals("SHA-512/224")) {
+            return new SHA512tDigest(224);
+        } else if (algorithm.equals("SHA-512/256")) {
+            return new SHA512tDigest(256);
+        } else if (algorithm.startsWith("SHA3-")) {
+            return new SHA3Digest(Integer.parseInt(algorithm.substring(5)));
+        }
+
+        throw new IllegalArgumentException("Unsupported digest: " + algorithm);
+    }
+
+    /**
+     * Map a JCA digest name in a MAC or signature name, e.g. SHA256 or
+     * SHA3-256, to the JCA digest name.
+     */
+    static String digestName(String name) {
+        return name.startsWith("SHA3-") ? name : "SHA-" + name.substring(3);
+    }
+
+    static AsymmetricKeyParameter privateKey(KeyPair keyPair)
+            throws IOException {
+        return PrivateKeyFactory.createKey(keyPair.getPrivate().getEncoded());
+    }
+
+    static AsymmetricKeyParameter publicKey(KeyPair keyPair)
+            throws IOException {
+        return PublicKeyFactory.createKey(keyPair.getPublic().getEncoded());
+    }
+}
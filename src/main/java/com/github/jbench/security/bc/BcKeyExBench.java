@@ -0,0 +1,124 @@
+package com.github.jbench.security.bc;
+
+import org.bouncycastle.crypto.BasicAgreement;
+import org.bouncycastle.crypto.CipherParameters;
+import org.bouncycastle.crypto.agreement.DHBasicAgreement;
+import org.bouncycastle.crypto.agreement.ECDHBasicAgreement;
+import org.bouncycastle.crypto.agreement.X25519Agreement;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.util.BigIntegers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Security;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.NamedParameterSpec;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmarks for the Bouncy Castle lightweight key agreements, which
+ * bypass JCA. The baseline is KeyExBench with product BC.
+ */
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 2, jvmArgsAppend = {"-server", "-Xms2048M", "-Xmx2048M", "-XX:+UseG1GC"})
+@Threads(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BcKeyExBench {
+
+    static {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    @FunctionalInterface
+    interface Agreement {
+
+        byte[] calculate(CipherParameters privateKey, CipherParameters publicKey);
+    }
+
+    @State(Scope.Benchmark)
+    public static class KeyExProvider {
+
+        @Param({"DH", "ECDH", "XDH"})
+        String algorithm;
+
+        CipherParameters privateKey;
+        CipherParameters publicKey;
+        Agreement agreement;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            KeyPair keyPair = keyPair();
+            privateKey = BcEngines.privateKey(keyPair);
+            publicKey = BcEngines.publicKey(keyPair);
+            agreement = agreement();
+        }
+
+        private KeyPair keyPair() throws Exception {
+            if (algorithm.equals("DH")) {
+                KeyPairGenerator keyPairGen = KeyPairGenerator.getInstance("DH");
+                keyPairGen.initialize(2048);
+                return keyPairGen.generateKeyPair();
+            } else if (algorithm.equals("ECDH")) {
+                KeyPairGenerator keyPairGen = KeyPairGenerator.getInstance("EC");
+                keyPairGen.initialize(new ECGenParameterSpec("SECP256R1"));
+                return keyPairGen.generateKeyPair();
+            } else if (algorithm.equals("XDH")) {
+                KeyPairGenerator keyPairGen = KeyPairGenerator.getInstance("XDH");
+                keyPairGen.initialize(new NamedParameterSpec("X25519"));
+                return keyPairGen.generateKeyPair();
+            }
+
+            throw new IllegalArgumentException(
+                    "Unsupported algorithm: " + algorithm);
+        }
+
+        private Agreement agreement() {
+            if (algorithm.equals("DH")) {
+                return basic(new DHBasicAgreement());
+            } else if (algorithm.equals("ECDH")) {
+                return basic(new ECDHBasicAgreement());
+            } else if (algorithm.equals("XDH")) {
+                X25519Agreement x25519 = new X25519Agreement();
+                return (privateKey, publicKey) -> {
+                    x25519.init(privateKey);
+                    byte[] secret = new byte[x25519.getAgreementSize()];
+                    x25519.calculateAgreement(publicKey, secret, 0);
+                    return secret;
+                };
+            }
+
+            throw new IllegalArgumentException(
+                    "Unsupported algorithm: " + algorithm);
+        }
+
+        // The secret is padded to the field size, as KeyAgreement does
+        private static Agreement basic(BasicAgreement basic) {
+            return (privateKey, publicKey) -> {
+                basic.init(privateKey);
+                return BigIntegers.asUnsignedByteArray(basic.getFieldSize(),
+                        basic.calculateAgreement(publicKey));
+            };
+        }
+    }
+
+    @Benchmark
+    public byte[] keyEx(KeyExProvider provider) {
+        return provider.agreement.calculate(
+                provider.privateKey, provider.publicKey);
+    }
+}
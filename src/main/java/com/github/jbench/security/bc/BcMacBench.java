@@ -0,0 +1,72 @@
+package com.github.jbench.security.bc;
+
+import com.github.jbench.BenchmarkUtils;
+import com.github.jbench.ThroughputCounter;
+import org.bouncycastle.crypto.macs.HMac;
+import org.bouncycastle.crypto.params.KeyParameter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmarks for the Bouncy Castle lightweight HMAC, which bypasses JCA.
+ * The baseline is MacBench with provider BC.
+ */
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 2, jvmArgsAppend = {"-server", "-Xms2048M", "-Xmx2048M", "-XX:+UseG1GC"})
+@Threads(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BcMacBench {
+
+    @State(Scope.Benchmark)
+    public static class MacProvider {
+
+        @Param({"HmacSHA1", "HmacSHA224", "HmacSHA256", "HmacSHA384",
+                "HmacSHA512/224", "HmacSHA512/256", "HmacSHA3-224",
+                "HmacSHA3-256", "HmacSHA3-384", "HmacSHA3-512"})
+        String algorithm;
+
+        @Param({"16", "64", "256", "1024", "4096", "16384", "65536",
+                "262144", "1048576", "4194304", "16777216"})
+        int size;
+
+        byte[] message;
+        double sizeInMB;
+
+        HMac mac;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            message = BenchmarkUtils.bytes(size);
+            sizeInMB = BenchmarkUtils.toMB(size);
+
+            mac = new HMac(BcEngines.digest(
+                    BcEngines.digestName(algorithm.substring(4))));
+            mac.init(new KeyParameter(BenchmarkUtils.KEY_16));
+        }
+    }
+
+    @Benchmark
+    public byte[] mac(MacProvider provider, ThroughputCounter counter) {
+        counter.megabytes += provider.sizeInMB;
+        HMac mac = provider.mac;
+        mac.update(provider.message, 0, provider.message.length);
+        byte[] output = new byte[mac.getMacSize()];
+        mac.doFinal(output, 0);
+        return output;
+    }
+}
@@ -0,0 +1,152 @@
+package com.github.jbench.security.bc;
+
+import com.github.jbench.BenchmarkUtils;
+import com.github.jbench.CertificateUtils;
+import com.github.jbench.ThroughputCounter;
+import org.bouncycastle.crypto.CryptoException;
+import org.bouncycastle.crypto.Signer;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.engines.RSABlindedEngine;
+import org.bouncycastle.crypto.signers.DSADigestSigner;
+import org.bouncycastle.crypto.signers.ECDSASigner;
+import org.bouncycastle.crypto.signers.Ed25519Signer;
+import org.bouncycastle.crypto.signers.PSSSigner;
+import org.bouncycastle.crypto.signers.RSADigestSigner;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.KeyPair;
+import java.security.Security;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmarks for the Bouncy Castle lightweight signers, which bypass JCA.
+ * The algorithms and sizes follow SignatureBench, and the baseline is
+ * SignatureBench with product BC.
+ */
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 2, jvmArgsAppend = {"-server", "-Xms2048M", "-Xmx2048M", "-XX:+UseG1GC"})
+@Threads(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BcSignatureBench {
+
+    static {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    @State(Scope.Benchmark)
+    public abstract static class SignerProvider {
+
+        @Param({"SHA1withECDSA", "SHA256withECDSA", "SHA3-256withECDSA", "EdDSA",
+                "SHA1withRSA", "SHA256withRSA", "SHA3-256withRSA", "RSASSA-PSS"})
+        String algorithm;
+
+        @Param({"16", "64", "256", "1024", "4096", "16384", "65536",
+                "262144", "1048576", "4194304", "16777216"})
+        int size;
+
+        byte[] message;
+        double sizeInMB;
+
+        KeyPair keyPair;
+        Signer signer;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            message = BenchmarkUtils.bytes(size);
+            sizeInMB = BenchmarkUtils.toMB(size);
+
+            keyPair = CertificateUtils.keyPair(keyType());
+            signer = signer();
+            initSigner();
+        }
+
+        abstract void initSigner() throws Exception;
+
+        private String keyType() {
+            if (algorithm.contains("ECDSA")) {
+                return "EC";
+            } else if (algorithm.contains("RSA")) {
+                return "RSA";
+            } else if (algorithm.equals("EdDSA")) {
+                return "Ed25519";
+            }
+
+            throw new IllegalArgumentException(
+                    "Unsupported algorithm: " + algorithm);
+        }
+
+        private Signer signer() {
+            if (algorithm.equals("RSASSA-PSS")) {
+                return new PSSSigner(new RSABlindedEngine(),
+                        new SHA256Digest(), 20);
+            } else if (algorithm.equals("EdDSA")) {
+                return new Ed25519Signer();
+            }
+
+            // e.g. SHA256withECDSA or SHA3-256withRSA
+            String digest = BcEngines.digestName(
+                    algorithm.substring(0, algorithm.indexOf("with")));
+            if (algorithm.endsWith("withECDSA")) {
+                return new DSADigestSigner(new ECDSASigner(),
+                        BcEngines.digest(digest));
+            } else if (algorithm.endsWith("withRSA")) {
+                return new RSADigestSigner(BcEngines.digest(digest));
+            }
+
+            throw new IllegalArgumentException(
+                    "Unsupported algorithm: " + algorithm);
+        }
+    }
+
+    public static class SignProvider extends SignerProvider {
+
+        @Override
+        void initSigner() throws Exception {
+            signer.init(true, BcEngines.privateKey(keyPair));
+        }
+    }
+
+    public static class VerifyProvider extends SignerProvider {
+
+        byte[] sig;
+
+        @Override
+        void initSigner() throws Exception {
+            signer.init(true, BcEngines.privateKey(keyPair));
+            signer.update(message, 0, message.length);
+            sig = signer.generateSignature();
+
+            signer.init(false, BcEngines.publicKey(keyPair));
+        }
+    }
+
+    @Benchmark
+    public byte[] sign(SignProvider signer, ThroughputCounter counter)
+            throws CryptoException {
+        counter.megabytes += signer.sizeInMB;
+        signer.signer.update(signer.message, 0, signer.message.length);
+        return signer.signer.generateSignature();
+    }
+
+    @Benchmark
+    public boolean verify(VerifyProvider verifier, ThroughputCounter counter) {
+        counter.megabytes += verifier.sizeInMB;
+        verifier.signer.update(verifier.message, 0, verifier.message.length);
+        return verifier.signer.verifySignature(verifier.sig);
+    }
+}
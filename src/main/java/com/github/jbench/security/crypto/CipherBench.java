@@ -1,6 +1,7 @@
 package com.github.jbench.security.crypto;
 
 import com.github.jbench.BenchmarkUtils;
+import com.github.jbench.ThroughputCounter;
 import org.bouncycastle.jcajce.spec.AEADParameterSpec;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -21,6 +22,7 @@ import javax.crypto.Cipher;
 import javax.crypto.spec.ChaCha20ParameterSpec;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.IvParameterSpec;
+import java.nio.ByteBuffer;
 import java.security.Key;
 import java.security.Security;
 import java.security.spec.AlgorithmParameterSpec;
@@ -37,14 +39,15 @@ import java.util.concurrent.TimeUnit;
 @OutputTimeUnit(TimeUnit.SECONDS)
 public class CipherBench {
 
-    private final static byte[] MESSAGE = BenchmarkUtils.DATA_1MB;
-
     static {
         Security.addProvider(new BouncyCastleProvider());
     }
 
+    /**
+     * The provider and transformation, and how to init the cipher with them.
+     */
     @State(Scope.Benchmark)
-    public abstract static class CipherProvider {
+    public abstract static class TransformationProvider {
 
         @Param({"JDK", "BC"})
         String product;
@@ -59,44 +62,32 @@ public class CipherBench {
                 "ChaCha20-Poly1305"})
         String transformation;
 
-        byte[] iv;
-        Cipher cipher;
-
-        @Setup(Level.Invocation)
-        public void setup() throws Exception {
-            cipher = cipher(opmode());
-        }
-
-        Cipher cipher(int opmode) throws Exception {
-            iv = iv(opmode);
-            Key key = key(transformation);
-
+        Cipher cipher(int opmode, Key key, byte[] iv) throws Exception {
             Cipher cipher = Cipher.getInstance(transformation, provider());
+            init(cipher, opmode, key, iv);
+            return cipher;
+        }
 
-            AlgorithmParameterSpec paramSpec = paramSpec();
+        void init(Cipher cipher, int opmode, Key key, byte[] iv)
+                throws Exception {
+            AlgorithmParameterSpec paramSpec = paramSpec(iv);
             if (paramSpec == null) {
                 cipher.init(opmode, key);
             } else {
                 cipher.init(opmode, key, paramSpec);
             }
-
-            return cipher;
         }
 
-        private String provider() {
+        String provider() {
             return "JDK".equalsIgnoreCase(product) ? "SunJCE" : product;
         }
 
-        abstract int opmode();
-
-        byte[] iv(int opmode) {
-            if(opmode == Cipher.ENCRYPT_MODE) {
-                return transformation.contains("ChaCha20")
-                        ? BenchmarkUtils.randomBytes(12)
-                        : BenchmarkUtils.randomBytes(16);
-            }
+        int keyLength() {
+            return transformation.contains("ChaCha20") ? 32 : 16;
+        }
 
-            return iv;
+        int ivLength() {
+            return transformation.contains("ChaCha20") ? 12 : 16;
         }
 
         Key key(String transformation) {
@@ -104,7 +95,7 @@ public class CipherBench {
                     ? BenchmarkUtils.AES_KEY_32 : BenchmarkUtils.AES_KEY_16;
         }
 
-        private AlgorithmParameterSpec paramSpec() {
+        private AlgorithmParameterSpec paramSpec(byte[] iv) {
             if (transformation.contains("CBC") || transformation.contains("CTR")) {
                 return new IvParameterSpec(iv);
             } else if (transformation.contains("ECB")) {
@@ -130,6 +121,52 @@ public class CipherBench {
         }
     }
 
+    public abstract static class CipherProvider extends TransformationProvider {
+
+        @Param({"16", "64", "256", "1024", "4096", "16384", "65536",
+                "262144", "1048576", "4194304", "16777216"})
+        int size;
+
+        byte[] message;
+        double sizeInMB;
+
+        Key key;
+        BenchmarkUtils.RotatingIvs ivs;
+
+        Cipher cipher;
+        byte[] output;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            message = BenchmarkUtils.bytes(size);
+            sizeInMB = BenchmarkUtils.toMB(size);
+
+            key = key(transformation);
+            ivs = new BenchmarkUtils.RotatingIvs(ivLength(), ivCount());
+
+            cipher = cipher(opmode(), ivs.get(0));
+            output = new byte[
+                    cipher(Cipher.ENCRYPT_MODE, ivs.get(0)).getOutputSize(size)];
+        }
+
+        /**
+         * Init the cipher with the next IV.
+         */
+        void nextIv() throws Exception {
+            init(cipher, opmode(), key, ivs.next());
+        }
+
+        Cipher cipher(int opmode, byte[] iv) throws Exception {
+            return cipher(opmode, key, iv);
+        }
+
+        abstract int opmode();
+
+        int ivCount() {
+            return 16;
+        }
+    }
+
     public static class Encrypter extends CipherProvider {
 
         int opmode() {
@@ -139,28 +176,227 @@ public class CipherBench {
 
     public static class Decrypter extends CipherProvider {
 
-        byte[] ciphertext;
+        byte[][] ciphertexts;
 
         int opmode() {
             return Cipher.DECRYPT_MODE;
         }
 
+        // Alternating two IVs is enough, and keeps the ciphertexts small
+        @Override
+        int ivCount() {
+            return 2;
+        }
+
+        @Override
+        public void setup() throws Exception {
+            super.setup();
+
+            ciphertexts = new byte[ivs.count()][];
+            for (int i = 0; i < ciphertexts.length; i++) {
+                Cipher encrypter = cipher(Cipher.ENCRYPT_MODE, ivs.get(i));
+                ciphertexts[i] = encrypter.doFinal(message);
+            }
+        }
+
+        byte[] ciphertext() {
+            return ciphertexts[ivs.index()];
+        }
+    }
+
+    /**
+     * Encrypt the message in chunks, like a stream of TLS records.
+     */
+    public static class StreamEncrypter extends Encrypter {
+
+        @Param({"4096", "16384", "65536"})
+        int chunk;
+    }
+
+    /**
+     * Decrypt the ciphertext in chunks, like a stream of TLS records.
+     */
+    public static class StreamDecrypter extends Decrypter {
+
+        @Param({"4096", "16384", "65536"})
+        int chunk;
+    }
+
+    /**
+     * Encrypt the message from a ByteBuffer into a ByteBuffer.
+     */
+    public static class BufferEncrypter extends Encrypter {
+
+        @Param({"HEAP", "DIRECT", "MAPPED"})
+        String buffer;
+
+        ByteBuffer inputBuffer;
+        ByteBuffer outputBuffer;
+
         @Override
         public void setup() throws Exception {
-            Cipher encrypter = cipher(Cipher.ENCRYPT_MODE);
-            ciphertext = encrypter.doFinal(MESSAGE);
+            super.setup();
+            inputBuffer = BenchmarkUtils.buffer(buffer, message);
+            outputBuffer = BenchmarkUtils.buffer(buffer, output.length);
+        }
+    }
 
+    /**
+     * Decrypt the ciphertext from a ByteBuffer into a ByteBuffer.
+     */
+    public static class BufferDecrypter extends Decrypter {
+
+        @Param({"HEAP", "DIRECT", "MAPPED"})
+        String buffer;
+
+        ByteBuffer[] inputBuffers;
+        ByteBuffer outputBuffer;
+
+        @Override
+        public void setup() throws Exception {
             super.setup();
+
+            inputBuffers = new ByteBuffer[ciphertexts.length];
+            for (int i = 0; i < ciphertexts.length; i++) {
+                inputBuffers[i] = BenchmarkUtils.buffer(buffer, ciphertexts[i]);
+            }
+            outputBuffer = BenchmarkUtils.buffer(buffer, output.length);
+        }
+
+        ByteBuffer inputBuffer() {
+            return inputBuffers[ivs.index()];
+        }
+    }
+
+    @Benchmark
+    public byte[] encrypt(Encrypter encrypter, ThroughputCounter counter)
+            throws Exception {
+        counter.megabytes += encrypter.sizeInMB;
+        encrypter.nextIv();
+        return encrypter.cipher.doFinal(encrypter.message);
+    }
+
+    @Benchmark
+    public byte[] decrypt(Decrypter decrypter, ThroughputCounter counter)
+            throws Exception {
+        counter.megabytes += decrypter.sizeInMB;
+        decrypter.nextIv();
+        return decrypter.cipher.doFinal(decrypter.ciphertext());
+    }
+
+    /**
+     * Encrypt into the preallocated output array.
+     */
+    @Benchmark
+    public int encryptInto(Encrypter encrypter, ThroughputCounter counter)
+            throws Exception {
+        counter.megabytes += encrypter.sizeInMB;
+        encrypter.nextIv();
+        return encrypter.cipher.doFinal(
+                encrypter.message, 0, encrypter.message.length,
+                encrypter.output, 0);
+    }
+
+    /**
+     * Encrypt into the preallocated output array with update and doFinal.
+     */
+    @Benchmark
+    public int encryptUpdate(Encrypter encrypter, ThroughputCounter counter)
+            throws Exception {
+        counter.megabytes += encrypter.sizeInMB;
+        encrypter.nextIv();
+        int length = encrypter.cipher.update(
+                encrypter.message, 0, encrypter.message.length,
+                encrypter.output, 0);
+        return length + encrypter.cipher.doFinal(encrypter.output, length);
+    }
+
+    /**
+     * Decrypt into the preallocated output array.
+     */
+    @Benchmark
+    public int decryptInto(Decrypter decrypter, ThroughputCounter counter)
+            throws Exception {
+        counter.megabytes += decrypter.sizeInMB;
+        decrypter.nextIv();
+        byte[] ciphertext = decrypter.ciphertext();
+        return decrypter.cipher.doFinal(
+                ciphertext, 0, ciphertext.length, decrypter.output, 0);
+    }
+
+    /**
+     * Decrypt into the preallocated output array with update and doFinal.
+     */
+    @Benchmark
+    public int decryptUpdate(Decrypter decrypter, ThroughputCounter counter)
+            throws Exception {
+        counter.megabytes += decrypter.sizeInMB;
+        decrypter.nextIv();
+        byte[] ciphertext = decrypter.ciphertext();
+        int length = decrypter.cipher.update(
+                ciphertext, 0, ciphertext.length, decrypter.output, 0);
+        return length + decrypter.cipher.doFinal(decrypter.output, length);
+    }
+
+    /**
+     * Encrypt the message with an update call per chunk, then doFinal.
+     * The one-shot baseline is encryptInto.
+     */
+    @Benchmark
+    public int encryptStream(StreamEncrypter encrypter,
+                             ThroughputCounter counter) throws Exception {
+        counter.megabytes += encrypter.sizeInMB;
+        encrypter.nextIv();
+        return update(encrypter.cipher, encrypter.message, encrypter.chunk,
+                encrypter.output);
+    }
+
+    /**
+     * Decrypt the ciphertext with an update call per chunk, then doFinal.
+     * The one-shot baseline is decryptInto.
+     */
+    @Benchmark
+    public int decryptStream(StreamDecrypter decrypter,
+                             ThroughputCounter counter) throws Exception {
+        counter.megabytes += decrypter.sizeInMB;
+        decrypter.nextIv();
+        return update(decrypter.cipher, decrypter.ciphertext(),
+                decrypter.chunk, decrypter.output);
+    }
+
+    private static int update(Cipher cipher, byte[] input, int chunk,
+                              byte[] output) throws Exception {
+        int length = 0;
+        for (int offset = 0; offset < input.length; offset += chunk) {
+            length += cipher.update(input, offset,
+                    Math.min(chunk, input.length - offset), output, length);
         }
+        return length + cipher.doFinal(output, length);
     }
 
     @Benchmark
-    public byte[] encrypt(Encrypter encrypter) throws Exception {
-        return encrypter.cipher.doFinal(MESSAGE);
+    public ByteBuffer encryptBuffer(BufferEncrypter encrypter,
+                                    ThroughputCounter counter)
+            throws Exception {
+        counter.megabytes += encrypter.sizeInMB;
+        encrypter.nextIv();
+        encrypter.inputBuffer.rewind();
+        encrypter.outputBuffer.clear();
+        encrypter.cipher.doFinal(
+                encrypter.inputBuffer, encrypter.outputBuffer);
+        return encrypter.outputBuffer;
     }
 
     @Benchmark
-    public byte[] decrypt(Decrypter decrypter) throws Exception {
-        return decrypter.cipher.doFinal(decrypter.ciphertext);
+    public ByteBuffer decryptBuffer(BufferDecrypter decrypter,
+                                    ThroughputCounter counter)
+            throws Exception {
+        counter.megabytes += decrypter.sizeInMB;
+        decrypter.nextIv();
+        ByteBuffer inputBuffer = decrypter.inputBuffer();
+        inputBuffer.rewind();
+        decrypter.outputBuffer.clear();
+        decrypter.cipher.doFinal(inputBuffer, decrypter.outputBuffer);
+        return decrypter.outputBuffer;
     }
 }
@@ -0,0 +1,97 @@
+package com.github.jbench.security.crypto;
+
+import com.github.jbench.BenchmarkUtils;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.Key;
+import java.security.Security;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmarks for creating and initializing symmetric ciphers, including
+ * the provider lookup, the key expansion and the mode setup, e.g. GHASH.
+ */
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 2, jvmArgsAppend = {"-server", "-Xms2048M", "-Xmx2048M", "-XX:+UseG1GC"})
+@Threads(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CipherInitBench {
+
+    static {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    public static class InitProvider extends CipherBench.TransformationProvider {
+
+        // The keys rotate with the IVs
+        BenchmarkUtils.RotatingIvs ivs;
+        Key[] keys;
+
+        Cipher cipher;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            ivs = new BenchmarkUtils.RotatingIvs(ivLength());
+            keys = new Key[ivs.count()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = new SecretKeySpec(
+                        BenchmarkUtils.randomBytes(keyLength()), "AES");
+            }
+
+            cipher = cipher(Cipher.ENCRYPT_MODE, keys[0], ivs.get(0));
+        }
+
+        Key key() {
+            return keys[ivs.index()];
+        }
+    }
+
+    @Benchmark
+    public Cipher getInstance(InitProvider provider) throws Exception {
+        return Cipher.getInstance(provider.transformation, provider.provider());
+    }
+
+    /**
+     * Create and init a cipher, as a new connection does.
+     */
+    @Benchmark
+    public Cipher newCipher(InitProvider provider) throws Exception {
+        byte[] iv = provider.ivs.next();
+        return provider.cipher(Cipher.ENCRYPT_MODE, provider.key(), iv);
+    }
+
+    /**
+     * Re-init the cipher with the same key and a new IV, as a new message does.
+     */
+    @Benchmark
+    public Cipher initIv(InitProvider provider) throws Exception {
+        provider.init(provider.cipher, Cipher.ENCRYPT_MODE,
+                provider.keys[0], provider.ivs.next());
+        return provider.cipher;
+    }
+
+    /**
+     * Re-init the cipher with a new key and a new IV, as a new session does.
+     */
+    @Benchmark
+    public Cipher initKey(InitProvider provider) throws Exception {
+        byte[] iv = provider.ivs.next();
+        provider.init(provider.cipher, Cipher.ENCRYPT_MODE,
+                provider.key(), iv);
+        return provider.cipher;
+    }
+}
@@ -0,0 +1,203 @@
+package com.github.jbench.security.crypto;
+
+import com.github.jbench.BenchmarkUtils;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyAgreement;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.KeyFactory;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.Provider;
+import java.security.Security;
+import java.security.Signature;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmarks for the cold start, namely the first call in a new JVM,
+ * which includes the class loading, the provider lookup, and the code running
+ * in the interpreter. Every fork makes one call only, so the score is the
+ * time of the first call, and the forks are the samples.
+ *
+ * Unlike the other benchmarks, this class doesn't add the BC provider in its
+ * static initializer, so addProvider can register it for the first time.
+ * The first operations start from the encoded keys, as a new process does.
+ *
+ * Use com.github.jbench.runner.WarmupRunner to see how the following calls
+ * warm up.
+ */
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 20, jvmArgsAppend = {"-server", "-Xms2048M", "-Xmx2048M", "-XX:+UseG1GC"})
+@Threads(1)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ColdStartBench {
+
+    // A P-256 private key in PKCS#8
+    private static final String EC_PRIVATE_KEY
+            = "3041020100301306072a8648ce3d020106082a8648ce3d0301070427302502"
+            + "01010420e830967f849eda5d7a0aa949b6e3148b1c932a6736bf906cdb273c"
+            + "e8fc2979fa";
+
+    // An X25519 public key in X.509
+    private static final String X25519_PUBLIC_KEY
+            = "302a300506032b656e032100cea0022f1fab3ee4897c81c9f08e303fa8ce68"
+            + "3115ed3185cf3c34e0d54cce42";
+
+    @FunctionalInterface
+    interface Operation {
+
+        Object run() throws Exception;
+    }
+
+    /**
+     * Load the JDK providers in advance, so addProvider only takes BC.
+     */
+    @State(Scope.Benchmark)
+    public static class JdkProviders {
+
+        @Setup(Level.Trial)
+        public void setup() {
+            Security.getProviders();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class OperationProvider {
+
+        @Param({"JDK", "BC"})
+        String product;
+
+        @Param({"DIGEST", "MAC", "CIPHER", "SIGNATURE", "KEY_AGREEMENT"})
+        String family;
+
+        byte[] message;
+        byte[] key;
+        byte[] iv;
+        byte[] privateKey;
+        byte[] publicKey;
+
+        Operation operation;
+
+        // Depend on JdkProviders, so neither product's first operation
+        // loads the java.security file and the JDK providers
+        @Setup(Level.Trial)
+        public void setup(JdkProviders jdkProviders) {
+            if (product.equals("BC")) {
+                Security.addProvider(new BouncyCastleProvider());
+            }
+
+            message = BenchmarkUtils.bytes(256);
+            key = BenchmarkUtils.bytes(16);
+            iv = BenchmarkUtils.bytes(12);
+            privateKey = BenchmarkUtils.toBytes(EC_PRIVATE_KEY);
+            publicKey = BenchmarkUtils.toBytes(X25519_PUBLIC_KEY);
+
+            operation = operation();
+        }
+
+        private Operation operation() {
+            if (family.equals("DIGEST")) {
+                return () -> MessageDigest.getInstance("SHA-256", provider())
+                        .digest(message);
+            } else if (family.equals("MAC")) {
+                return () -> {
+                    Mac mac = Mac.getInstance("HmacSHA256", provider());
+                    mac.init(new SecretKeySpec(key, "HmacSHA256"));
+                    return mac.doFinal(message);
+                };
+            } else if (family.equals("CIPHER")) {
+                return () -> {
+                    Cipher cipher = Cipher.getInstance(
+                            "AES/GCM/NoPadding", provider());
+                    cipher.init(Cipher.ENCRYPT_MODE,
+                            new SecretKeySpec(key, "AES"),
+                            new GCMParameterSpec(128, iv));
+                    return cipher.doFinal(message);
+                };
+            } else if (family.equals("SIGNATURE")) {
+                return () -> {
+                    Signature signature = Signature.getInstance(
+                            "SHA256withECDSA", provider());
+                    signature.initSign(KeyFactory.getInstance("EC", provider())
+                            .generatePrivate(new PKCS8EncodedKeySpec(privateKey)));
+                    signature.update(message);
+                    return signature.sign();
+                };
+            } else if (family.equals("KEY_AGREEMENT")) {
+                return () -> {
+                    KeyAgreement keyEx = KeyAgreement.getInstance(
+                            "X25519", provider());
+                    keyEx.init(KeyPairGenerator.getInstance("X25519", provider())
+                            .generateKeyPair().getPrivate());
+                    keyEx.doPhase(KeyFactory.getInstance("X25519", provider())
+                            .generatePublic(new X509EncodedKeySpec(publicKey)),
+                            true);
+                    return keyEx.generateSecret();
+                };
+            }
+
+            throw new IllegalArgumentException("Unknown family: " + family);
+        }
+
+        private String provider() {
+            if (product.equals("JDK")) {
+                if (family.equals("DIGEST")) {
+                    return "SUN";
+                } else if (family.equals("SIGNATURE")
+                        || family.equals("KEY_AGREEMENT")) {
+                    return "SunEC";
+                } else {
+                    return "SunJCE";
+                }
+            }
+
+            return product;
+        }
+    }
+
+    /**
+     * Load the JDK providers, as the first JCA call does.
+     */
+    @Benchmark
+    public Provider[] jdkProviders() {
+        return Security.getProviders();
+    }
+
+    /**
+     * Create and register the BC provider, as every benchmark class does in
+     * its static initializer.
+     */
+    @Benchmark
+    public int addProvider(JdkProviders jdkProviders) {
+        return Security.addProvider(new BouncyCastleProvider());
+    }
+
+    /**
+     * Look up, init and run the first operation of an algorithm family,
+     * after the providers are loaded.
+     */
+    @Benchmark
+    public Object firstOperation(OperationProvider provider) throws Exception {
+        return provider.operation.run();
+    }
+}
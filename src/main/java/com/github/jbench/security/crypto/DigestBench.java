@@ -1,6 +1,7 @@
 package com.github.jbench.security.crypto;
 
 import com.github.jbench.BenchmarkUtils;
+import com.github.jbench.ThroughputCounter;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
@@ -16,6 +17,7 @@ import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.annotations.Warmup;
 
+import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 import java.security.Security;
 import java.util.concurrent.TimeUnit;
@@ -31,8 +33,6 @@ import java.util.concurrent.TimeUnit;
 @OutputTimeUnit(TimeUnit.SECONDS)
 public class DigestBench {
 
-    private final static byte[] MESSAGE = BenchmarkUtils.DATA_1MB;
-
     static {
         Security.addProvider(new BouncyCastleProvider());
     }
@@ -47,11 +47,21 @@ public class DigestBench {
                 "SHA-512/256", "SHA3-224", "SHA3-256", "SHA3-384", "SHA3-512"})
         String algorithm;
 
+        @Param({"16", "64", "256", "1024", "4096", "16384", "65536",
+                "262144", "1048576", "4194304", "16777216"})
+        int size;
+
+        byte[] message;
+        double sizeInMB;
+
         String provider;
         MessageDigest messageDigest;
 
         @Setup(Level.Trial)
         public void setup() throws Exception {
+            message = BenchmarkUtils.bytes(size);
+            sizeInMB = BenchmarkUtils.toMB(size);
+
             provider = provider();
             messageDigest = MessageDigest.getInstance(algorithm, provider);
         }
@@ -61,8 +71,59 @@ public class DigestBench {
         }
     }
 
+    /**
+     * Feed the message in chunks, like a stream of TLS records.
+     */
+    public static class StreamDigestProvider extends DigestProvider {
+
+        @Param({"4096", "16384", "65536"})
+        int chunk;
+    }
+
+    /**
+     * Feed the message from a ByteBuffer instead of a byte array.
+     */
+    public static class BufferDigestProvider extends DigestProvider {
+
+        @Param({"HEAP", "DIRECT", "MAPPED"})
+        String buffer;
+
+        ByteBuffer input;
+
+        @Override
+        public void setup() throws Exception {
+            super.setup();
+            input = BenchmarkUtils.buffer(buffer, message);
+        }
+    }
+
+    @Benchmark
+    public byte[] digest(DigestProvider provider, ThroughputCounter counter) {
+        counter.megabytes += provider.sizeInMB;
+        return provider.messageDigest.digest(provider.message);
+    }
+
+    /**
+     * Call update per chunk, then digest. The one-shot baseline is digest.
+     */
+    @Benchmark
+    public byte[] digestStream(StreamDigestProvider provider,
+                               ThroughputCounter counter) {
+        counter.megabytes += provider.sizeInMB;
+        byte[] message = provider.message;
+        for (int offset = 0; offset < message.length; offset += provider.chunk) {
+            provider.messageDigest.update(message, offset,
+                    Math.min(provider.chunk, message.length - offset));
+        }
+        return provider.messageDigest.digest();
+    }
+
     @Benchmark
-    public byte[] digest(DigestProvider provider) {
-        return provider.messageDigest.digest(MESSAGE);
+    public byte[] digestBuffer(BufferDigestProvider provider,
+                               ThroughputCounter counter) {
+        counter.megabytes += provider.sizeInMB;
+        provider.input.rewind();
+        provider.messageDigest.update(provider.input);
+        return provider.messageDigest.digest();
     }
 }
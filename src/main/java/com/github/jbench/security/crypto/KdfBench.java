@@ -0,0 +1,198 @@
+package com.github.jbench.security.crypto;
+
+import com.github.jbench.BenchmarkUtils;
+import org.bouncycastle.crypto.Digest;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.digests.SHA512Digest;
+import org.bouncycastle.crypto.generators.Argon2BytesGenerator;
+import org.bouncycastle.crypto.generators.HKDFBytesGenerator;
+import org.bouncycastle.crypto.generators.SCrypt;
+import org.bouncycastle.crypto.params.Argon2Parameters;
+import org.bouncycastle.crypto.params.HKDFParameters;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.Security;
+import java.security.spec.InvalidKeySpecException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmarks for key derivation functions and password hashing.
+ * The memory-hard ones allocate their working memory on every call, so run
+ * them with "-prof gc" to get the allocated bytes per operation
+ * (gc.alloc.rate.norm) next to the throughput. BC runs the Argon2
+ * parallelism lanes one after another on the calling thread, so they add
+ * memory but no concurrency.
+ */
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 2, jvmArgsAppend = {"-server", "-Xms2048M", "-Xmx2048M", "-XX:+UseG1GC"})
+@Threads(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class KdfBench {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    static {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    @State(Scope.Benchmark)
+    public static class Pbkdf2Provider {
+
+        @Param({"JDK", "BC"})
+        String product;
+
+        @Param({"PBKDF2WithHmacSHA256", "PBKDF2WithHmacSHA512"})
+        String algorithm;
+
+        @Param({"10000", "100000", "600000"})
+        int iterations;
+
+        SecretKeyFactory keyFactory;
+        PBEKeySpec keySpec;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            keyFactory = SecretKeyFactory.getInstance(algorithm, provider());
+            keySpec = new PBEKeySpec(PASSWORD.toCharArray(),
+                    BenchmarkUtils.bytes(16), iterations, 256);
+        }
+
+        private String provider() {
+            return product.equals("JDK") ? "SunJCE" : product;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class HkdfProvider {
+
+        @Param({"SHA-256", "SHA-512"})
+        String digest;
+
+        @Param({"32", "64"})
+        int length;
+
+        HKDFBytesGenerator hkdf;
+        HKDFParameters params;
+        byte[] output;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            hkdf = new HKDFBytesGenerator(digest());
+            params = new HKDFParameters(BenchmarkUtils.KEY_32,
+                    BenchmarkUtils.bytes(16),
+                    "jbench".getBytes(StandardCharsets.UTF_8));
+            output = new byte[length];
+        }
+
+        private Digest digest() {
+            if (digest.equals("SHA-256")) {
+                return new SHA256Digest();
+            } else if (digest.equals("SHA-512")) {
+                return new SHA512Digest();
+            } else {
+                throw new IllegalArgumentException(
+                        "Unsupported digest: " + digest);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ScryptProvider {
+
+        // The memory cost in KB, that is 128 * N * r bytes with r = 8
+        @Param({"16384", "65536"})
+        int memory;
+
+        @Param({"1", "4"})
+        int parallelism;
+
+        byte[] password;
+        byte[] salt;
+        int cost;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            password = PASSWORD.getBytes(StandardCharsets.UTF_8);
+            salt = BenchmarkUtils.bytes(16);
+            cost = memory * 1024 / (128 * 8);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Argon2Provider {
+
+        @Param({"1", "3"})
+        int iterations;
+
+        // The memory cost in KB
+        @Param({"19456", "65536"})
+        int memory;
+
+        @Param({"1", "4"})
+        int parallelism;
+
+        byte[] password;
+        Argon2BytesGenerator argon2;
+        Argon2Parameters params;
+        byte[] output;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            password = PASSWORD.getBytes(StandardCharsets.UTF_8);
+            argon2 = new Argon2BytesGenerator();
+            params = new Argon2Parameters.Builder(Argon2Parameters.ARGON2_id)
+                    .withVersion(Argon2Parameters.ARGON2_VERSION_13)
+                    .withIterations(iterations)
+                    .withMemoryAsKB(memory)
+                    .withParallelism(parallelism)
+                    .withSalt(BenchmarkUtils.bytes(16))
+                    .build();
+            output = new byte[32];
+        }
+    }
+
+    @Benchmark
+    public byte[] pbkdf2(Pbkdf2Provider provider)
+            throws InvalidKeySpecException {
+        return provider.keyFactory.generateSecret(provider.keySpec).getEncoded();
+    }
+
+    @Benchmark
+    public byte[] hkdf(HkdfProvider provider) {
+        provider.hkdf.init(provider.params);
+        provider.hkdf.generateBytes(provider.output, 0, provider.output.length);
+        return provider.output;
+    }
+
+    @Benchmark
+    public byte[] scrypt(ScryptProvider provider) {
+        return SCrypt.generate(provider.password, provider.salt,
+                provider.cost, 8, provider.parallelism, 32);
+    }
+
+    @Benchmark
+    public byte[] argon2id(Argon2Provider provider) {
+        // BC allocates the Argon2 memory blocks in init
+        provider.argon2.init(provider.params);
+        provider.argon2.generateBytes(provider.password, provider.output);
+        return provider.output;
+    }
+}
@@ -1,5 +1,8 @@
 package com.github.jbench.security.crypto;
 
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.generators.HKDFBytesGenerator;
+import org.bouncycastle.crypto.params.HKDFParameters;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
@@ -16,8 +19,10 @@ import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.annotations.Warmup;
 
 import javax.crypto.KeyAgreement;
+import java.nio.charset.StandardCharsets;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
+import java.security.PublicKey;
 import java.security.Security;
 import java.security.spec.ECGenParameterSpec;
 import java.security.spec.NamedParameterSpec;
@@ -25,6 +30,11 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * The benchmarks for key exchange algorithms.
+ *
+ * The ephemeral ones run the one side of an ECDHE-style handshake, namely
+ * generate a key pair, agree with the public key of the peer and derive
+ * the key with HKDF-SHA256. Every thread has its own generator and
+ * agreement, so the score per thread is the handshakes per second per core.
  */
 @Warmup(iterations = 5, time = 5)
 @Measurement(iterations = 5, time = 10)
@@ -98,10 +108,78 @@ public class KeyExBench {
         }
     }
 
+    @State(Scope.Thread)
+    public static class EphemeralProvider {
+
+        private static final byte[] INFO
+                = "jbench".getBytes(StandardCharsets.UTF_8);
+
+        @Param({"JDK", "BC"})
+        String product;
+
+        @Param({"X25519", "X448", "P-256", "P-384", "P-521",
+                "ffdhe2048", "ffdhe3072", "ffdhe4096"})
+        String group;
+
+        KeyPairGenerator keyPairGen;
+        KeyAgreement keyEx;
+        PublicKey peerPublicKey;
+
+        HKDFBytesGenerator hkdf;
+        byte[] key;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            keyPairGen = KeyExGroups.keyPairGenerator(product, group);
+            keyEx = KeyAgreement.getInstance(KeyExGroups.algorithm(group),
+                    KeyExGroups.provider(product, group));
+            peerPublicKey = keyPairGen.generateKeyPair().getPublic();
+
+            hkdf = new HKDFBytesGenerator(new SHA256Digest());
+            key = new byte[32];
+        }
+
+        byte[] derive(byte[] secret) {
+            hkdf.init(new HKDFParameters(secret, null, INFO));
+            hkdf.generateBytes(key, 0, key.length);
+            return key;
+        }
+    }
+
     @Benchmark
     public byte[] keyEx(KeyExProvider provider) throws Exception {
         provider.keyEx.init(provider.keyPair.getPrivate());
         provider.keyEx.doPhase(provider.keyPair.getPublic(), true);
         return provider.keyEx.generateSecret();
     }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public byte[] keyExLatency(KeyExProvider provider) throws Exception {
+        provider.keyEx.init(provider.keyPair.getPrivate());
+        provider.keyEx.doPhase(provider.keyPair.getPublic(), true);
+        return provider.keyEx.generateSecret();
+    }
+
+    @Benchmark
+    public byte[] ephemeralKeyEx(EphemeralProvider provider) throws Exception {
+        return handshake(provider);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public byte[] ephemeralKeyExLatency(EphemeralProvider provider)
+            throws Exception {
+        return handshake(provider);
+    }
+
+    private static byte[] handshake(EphemeralProvider provider)
+            throws Exception {
+        KeyPair keyPair = provider.keyPairGen.generateKeyPair();
+        provider.keyEx.init(keyPair.getPrivate());
+        provider.keyEx.doPhase(provider.peerPublicKey, true);
+        return provider.derive(provider.keyEx.generateSecret());
+    }
 }
@@ -0,0 +1,73 @@
+package com.github.jbench.security.crypto;
+
+import org.bouncycastle.crypto.agreement.DHStandardGroups;
+import org.bouncycastle.crypto.params.DHParameters;
+
+import javax.crypto.spec.DHParameterSpec;
+import java.security.KeyPairGenerator;
+import java.security.spec.AlgorithmParameterSpec;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.NamedParameterSpec;
+
+/**
+ * The groups for the ephemeral key exchanges, including the curves and the
+ * RFC 7919 finite field groups.
+ */
+class KeyExGroups {
+
+    static String algorithm(String group) {
+        if (group.startsWith("X")) {
+            return "XDH";
+        } else if (group.startsWith("P-")) {
+            return "ECDH";
+        } else if (group.startsWith("ffdhe")) {
+            return "DH";
+        } else {
+            throw new IllegalArgumentException("Unsupported group: " + group);
+        }
+    }
+
+    static String keyAlgorithm(String group) {
+        String algorithm = algorithm(group);
+        return algorithm.equals("ECDH") ? "EC" : algorithm;
+    }
+
+    static String provider(String product, String group) {
+        if (product.equals("JDK")) {
+            return algorithm(group).equals("DH") ? "SunJCE" : "SunEC";
+        }
+
+        return product;
+    }
+
+    static KeyPairGenerator keyPairGenerator(String product, String group)
+            throws Exception {
+        KeyPairGenerator keyPairGen = KeyPairGenerator.getInstance(
+                keyAlgorithm(group), provider(product, group));
+        keyPairGen.initialize(paramSpec(group));
+        return keyPairGen;
+    }
+
+    static AlgorithmParameterSpec paramSpec(String group) {
+        if (group.startsWith("X")) {
+            return new NamedParameterSpec(group);
+        } else if (group.startsWith("P-")) {
+            return new ECGenParameterSpec("secp" + group.substring(2) + "r1");
+        } else if (group.equals("ffdhe2048")) {
+            return dhParamSpec(DHStandardGroups.rfc7919_ffdhe2048, 225);
+        } else if (group.equals("ffdhe3072")) {
+            return dhParamSpec(DHStandardGroups.rfc7919_ffdhe3072, 275);
+        } else if (group.equals("ffdhe4096")) {
+            return dhParamSpec(DHStandardGroups.rfc7919_ffdhe4096, 325);
+        } else {
+            throw new IllegalArgumentException("Unsupported group: " + group);
+        }
+    }
+
+    // The minimal private exponent lengths of RFC 7919 section 5.2, so
+    // the providers don't fall back to the full length exponents
+    private static DHParameterSpec dhParamSpec(
+            DHParameters params, int exponentSize) {
+        return new DHParameterSpec(params.getP(), params.getG(), exponentSize);
+    }
+}
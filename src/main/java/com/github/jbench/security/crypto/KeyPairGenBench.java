@@ -24,6 +24,9 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * The benchmarks for key pair generator.
+ *
+ * The key exchange ones generate the ephemeral key pairs on the curves and
+ * the RFC 7919 finite field groups, see KeyExBench.ephemeralKeyEx.
  */
 @Warmup(iterations = 5, time = 5)
 @Measurement(iterations = 5, time = 10)
@@ -99,8 +102,45 @@ public class KeyPairGenBench {
         }
     }
 
+    @State(Scope.Benchmark)
+    public static class KeyExKeyPairGenProvider {
+
+        @Param({"JDK", "BC"})
+        String product;
+
+        @Param({"X25519", "X448", "P-256", "P-384", "P-521",
+                "ffdhe2048", "ffdhe3072", "ffdhe4096"})
+        String group;
+
+        KeyPairGenerator keyPairGen;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            keyPairGen = KeyExGroups.keyPairGenerator(product, group);
+        }
+    }
+
     @Benchmark
     public KeyPair keyPairGen(KeyPairGenProvider provider) {
         return provider.keyPairGen.generateKeyPair();
     }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public KeyPair keyPairGenLatency(KeyPairGenProvider provider) {
+        return provider.keyPairGen.generateKeyPair();
+    }
+
+    @Benchmark
+    public KeyPair keyExKeyPairGen(KeyExKeyPairGenProvider provider) {
+        return provider.keyPairGen.generateKeyPair();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public KeyPair keyExKeyPairGenLatency(KeyExKeyPairGenProvider provider) {
+        return provider.keyPairGen.generateKeyPair();
+    }
 }
@@ -1,6 +1,7 @@
 package com.github.jbench.security.crypto;
 
 import com.github.jbench.BenchmarkUtils;
+import com.github.jbench.ThroughputCounter;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
@@ -18,6 +19,7 @@ import org.openjdk.jmh.annotations.Warmup;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
 import java.security.Security;
 import java.util.concurrent.TimeUnit;
 
@@ -32,8 +34,6 @@ import java.util.concurrent.TimeUnit;
 @OutputTimeUnit(TimeUnit.SECONDS)
 public class MacBench {
 
-    private final static byte[] MESSAGE = BenchmarkUtils.DATA_1MB;
-
     static {
         Security.addProvider(new BouncyCastleProvider());
     }
@@ -49,10 +49,20 @@ public class MacBench {
                 "HmacSHA3-256", "HmacSHA3-384", "HmacSHA3-512"})
         String algorithm;
 
+        @Param({"16", "64", "256", "1024", "4096", "16384", "65536",
+                "262144", "1048576", "4194304", "16777216"})
+        int size;
+
+        byte[] message;
+        double sizeInMB;
+
         Mac mac;
 
         @Setup(Level.Trial)
         public void setup() throws Exception {
+            message = BenchmarkUtils.bytes(size);
+            sizeInMB = BenchmarkUtils.toMB(size);
+
             mac = Mac.getInstance(algorithm, provider());
             SecretKeySpec key = new SecretKeySpec(BenchmarkUtils.KEY_16, "AES");
             mac.init(key);
@@ -63,8 +73,59 @@ public class MacBench {
         }
     }
 
+    /**
+     * Feed the message in chunks, like a stream of TLS records.
+     */
+    public static class StreamMacProvider extends MacProvider {
+
+        @Param({"4096", "16384", "65536"})
+        int chunk;
+    }
+
+    /**
+     * Feed the message from a ByteBuffer instead of a byte array.
+     */
+    public static class BufferMacProvider extends MacProvider {
+
+        @Param({"HEAP", "DIRECT", "MAPPED"})
+        String buffer;
+
+        ByteBuffer input;
+
+        @Override
+        public void setup() throws Exception {
+            super.setup();
+            input = BenchmarkUtils.buffer(buffer, message);
+        }
+    }
+
+    @Benchmark
+    public byte[] mac(MacProvider provider, ThroughputCounter counter) {
+        counter.megabytes += provider.sizeInMB;
+        return provider.mac.doFinal(provider.message);
+    }
+
+    /**
+     * Call update per chunk, then doFinal. The one-shot baseline is mac.
+     */
+    @Benchmark
+    public byte[] macStream(StreamMacProvider provider,
+                            ThroughputCounter counter) {
+        counter.megabytes += provider.sizeInMB;
+        byte[] message = provider.message;
+        for (int offset = 0; offset < message.length; offset += provider.chunk) {
+            provider.mac.update(message, offset,
+                    Math.min(provider.chunk, message.length - offset));
+        }
+        return provider.mac.doFinal();
+    }
+
     @Benchmark
-    public byte[] mac(MacProvider provider) {
-        return provider.mac.doFinal(MESSAGE);
+    public byte[] macBuffer(BufferMacProvider provider,
+                            ThroughputCounter counter) {
+        counter.megabytes += provider.sizeInMB;
+        provider.input.rewind();
+        provider.mac.update(provider.input);
+        return provider.mac.doFinal();
     }
 }
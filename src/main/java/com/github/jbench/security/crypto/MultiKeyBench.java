@@ -0,0 +1,489 @@
+package com.github.jbench.security.crypto;
+
+import com.github.jbench.BenchmarkUtils;
+import org.bouncycastle.crypto.Digest;
+import org.bouncycastle.crypto.ExtendedDigest;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.digests.SHA512Digest;
+import org.bouncycastle.crypto.engines.AESEngine;
+import org.bouncycastle.crypto.modes.AEADCipher;
+import org.bouncycastle.crypto.modes.ChaCha20Poly1305;
+import org.bouncycastle.crypto.modes.GCMBlockCipher;
+import org.bouncycastle.crypto.params.AEADParameters;
+import org.bouncycastle.crypto.params.KeyParameter;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.util.Memoable;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.Security;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmarks for MAC and AEAD on small messages with many keys, e.g. one
+ * key per tenant, where the key setup on every key switch, like the HMAC pads
+ * and the AES key expansion, outweighs the message processing.
+ *
+ * Every message picks a key at random from the population. The strategies are:
+ * REINIT, initialize one instance with the key of every message;
+ * CACHED, keep the instances initialized with their keys in an LRU cache;
+ * CLONED, keep the initialized instances in an LRU cache, and clone the cached
+ * one for every message, as a cache shared by the threads has to. BC Mac
+ * cannot be cloned, so the BC ones copy the keyed HMAC digest states.
+ * The BC JCE ciphers expand the key again on every init, so the BC ciphers
+ * are the lightweight ones, which REINIT inits with a new key and CACHED with
+ * a new nonce only.
+ *
+ * The hit ratio of the cache is cacheSize / keys. The heap taken by the full
+ * cache is reported by FootprintCounter.
+ */
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 2, jvmArgsAppend = {"-server", "-Xms2048M", "-Xmx2048M", "-XX:+UseG1GC"})
+@Threads(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MultiKeyBench {
+
+    static {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    @FunctionalInterface
+    interface Loader<T> {
+
+        T load(int key) throws GeneralSecurityException;
+    }
+
+    @FunctionalInterface
+    interface MacFunction {
+
+        byte[] mac(int key, byte[] message) throws Exception;
+    }
+
+    @FunctionalInterface
+    interface AeadFunction {
+
+        int encrypt(int key, byte[] message, byte[] output) throws Exception;
+    }
+
+    @State(Scope.Thread)
+    public abstract static class KeyProvider {
+
+        // The number of the pre-generated key picks, must be a power of 2
+        private static final int PICKS = 1 << 16;
+
+        @Param({"JDK", "BC"})
+        String product;
+
+        @Param({"1", "1000", "100000", "1000000"})
+        int keys;
+
+        @Param({"1000", "100000"})
+        int cacheSize;
+
+        @Param({"64", "256"})
+        int size;
+
+        SecretKey[] secretKeys;
+        int[] picks;
+        int index;
+
+        byte[] message;
+
+        @Setup(Level.Trial)
+        public void setup(FootprintCounter counter) throws Exception {
+            byte[] keyBytes = BenchmarkUtils.randomBytes(keys * 32);
+            secretKeys = new SecretKey[keys];
+            for (int i = 0; i < keys; i++) {
+                secretKeys[i] = new SecretKeySpec(
+                        keyBytes, i * 32, 32, keyAlgorithm());
+            }
+
+            Random random = new Random();
+            picks = new int[PICKS];
+            for (int i = 0; i < PICKS; i++) {
+                picks[i] = random.nextInt(keys);
+            }
+
+            message = BenchmarkUtils.bytes(size);
+
+            init();
+            if (!strategy().equals("REINIT")) {
+                fill(counter);
+            }
+        }
+
+        abstract String strategy();
+
+        abstract String keyAlgorithm();
+
+        abstract void init() throws Exception;
+
+        abstract void load(int key) throws Exception;
+
+        String provider() {
+            return product.equals("JDK") ? "SunJCE" : product;
+        }
+
+        int nextKey() {
+            index = (index + 1) & (PICKS - 1);
+            return picks[index];
+        }
+
+        // Fill the cache up, and count the heap it takes
+        private void fill(FootprintCounter counter) throws Exception {
+            int entries = Math.min(keys, cacheSize);
+
+            long usedBefore = usedMemory();
+            for (int i = 0; i < entries; i++) {
+                load(i);
+            }
+            counter.footprint = Math.max(usedMemory() - usedBefore, 0);
+            counter.entries = entries;
+        }
+
+        private static long usedMemory() {
+            Runtime runtime = Runtime.getRuntime();
+            for (int i = 0; i < 3; i++) {
+                System.gc();
+            }
+            return runtime.totalMemory() - runtime.freeMemory();
+        }
+    }
+
+    public static class MacProvider extends KeyProvider {
+
+        @Param({"HmacSHA256", "HmacSHA512"})
+        String algorithm;
+
+        @Param({"REINIT", "CACHED", "CLONED"})
+        String strategy;
+
+        MacFunction function;
+        LruCache<?> cache;
+
+        @Override
+        String strategy() {
+            return strategy;
+        }
+
+        @Override
+        String keyAlgorithm() {
+            return algorithm;
+        }
+
+        @Override
+        void init() throws Exception {
+            if (strategy.equals("REINIT")) {
+                Mac mac = Mac.getInstance(algorithm, provider());
+                function = (key, message) -> {
+                    mac.init(secretKeys[key]);
+                    return mac.doFinal(message);
+                };
+            } else if (strategy.equals("CACHED")) {
+                LruCache<Mac> macs = new LruCache<>(cacheSize, this::newMac);
+                function = (key, message) -> macs.get(key).doFinal(message);
+                cache = macs;
+            } else if (strategy.equals("CLONED") && product.equals("JDK")) {
+                LruCache<Mac> macs = new LruCache<>(cacheSize, this::newMac);
+                function = (key, message)
+                        -> ((Mac) macs.get(key).clone()).doFinal(message);
+                cache = macs;
+            } else if (strategy.equals("CLONED")) {
+                LruCache<HmacState> states = new LruCache<>(cacheSize,
+                        key -> new HmacState(algorithm,
+                                secretKeys[key].getEncoded()));
+                function = (key, message) -> states.get(key).mac(message);
+                cache = states;
+            } else {
+                throw new IllegalArgumentException(
+                        "Unknown strategy: " + strategy);
+            }
+        }
+
+        @Override
+        void load(int key) throws Exception {
+            cache.get(key);
+        }
+
+        private Mac newMac(int key) throws GeneralSecurityException {
+            Mac mac = Mac.getInstance(algorithm, provider());
+            mac.init(secretKeys[key]);
+            return mac;
+        }
+    }
+
+    public static class AeadProvider extends KeyProvider {
+
+        @Param({"AES/GCM/NoPadding", "ChaCha20-Poly1305"})
+        String transformation;
+
+        // The cipher instances cannot be cloned
+        @Param({"REINIT", "CACHED"})
+        String strategy;
+
+        // Every message has its own IV, which carries a counter
+        byte[] iv;
+        long counter;
+
+        byte[] output;
+
+        AeadFunction function;
+        LruCache<?> cache;
+
+        @Override
+        String strategy() {
+            return strategy;
+        }
+
+        @Override
+        String keyAlgorithm() {
+            return transformation.startsWith("AES") ? "AES" : "ChaCha20";
+        }
+
+        @Override
+        void init() throws Exception {
+            iv = new byte[12];
+            output = new byte[size + 16];
+
+            if (strategy.equals("REINIT") && product.equals("JDK")) {
+                Cipher cipher = Cipher.getInstance(transformation, provider());
+                function = (key, message, output) -> {
+                    cipher.init(Cipher.ENCRYPT_MODE, secretKeys[key],
+                            nextParamSpec());
+                    return cipher.doFinal(message, 0, message.length, output);
+                };
+            } else if (strategy.equals("CACHED") && product.equals("JDK")) {
+                // SunJCE keeps the AES round keys, if the key is the last one
+                LruCache<Cipher> ciphers = new LruCache<>(
+                        cacheSize, this::newCipher);
+                function = (key, message, output) -> {
+                    Cipher cipher = ciphers.get(key);
+                    cipher.init(Cipher.ENCRYPT_MODE, secretKeys[key],
+                            nextParamSpec());
+                    return cipher.doFinal(message, 0, message.length, output);
+                };
+                cache = ciphers;
+            } else if (strategy.equals("REINIT")) {
+                AEADCipher cipher = newAeadCipher();
+                function = (key, message, output) -> {
+                    cipher.init(true, nextParams(keyParameter(key)));
+                    return encrypt(cipher, message, output);
+                };
+            } else if (strategy.equals("CACHED")) {
+                // The null key keeps the key schedule and the GHASH tables
+                LruCache<AEADCipher> ciphers = new LruCache<>(cacheSize, key -> {
+                    AEADCipher cipher = newAeadCipher();
+                    cipher.init(true, nextParams(keyParameter(key)));
+                    return cipher;
+                });
+                function = (key, message, output) -> {
+                    AEADCipher cipher = ciphers.get(key);
+                    cipher.init(true, nextParams(null));
+                    return encrypt(cipher, message, output);
+                };
+                cache = ciphers;
+            } else {
+                throw new IllegalArgumentException(
+                        "Unknown strategy: " + strategy);
+            }
+        }
+
+        @Override
+        void load(int key) throws Exception {
+            cache.get(key);
+        }
+
+        private Cipher newCipher(int key) throws GeneralSecurityException {
+            Cipher cipher = Cipher.getInstance(transformation, provider());
+            cipher.init(Cipher.ENCRYPT_MODE, secretKeys[key], nextParamSpec());
+            return cipher;
+        }
+
+        private AEADCipher newAeadCipher() {
+            return transformation.startsWith("AES")
+                    ? GCMBlockCipher.newInstance(AESEngine.newInstance())
+                    : new ChaCha20Poly1305();
+        }
+
+        private KeyParameter keyParameter(int key) {
+            return new KeyParameter(secretKeys[key].getEncoded());
+        }
+
+        private static int encrypt(AEADCipher cipher, byte[] message,
+                                   byte[] output) throws Exception {
+            int length = cipher.processBytes(
+                    message, 0, message.length, output, 0);
+            return length + cipher.doFinal(output, length);
+        }
+
+        private AlgorithmParameterSpec nextParamSpec() {
+            return transformation.startsWith("AES")
+                    ? new GCMParameterSpec(128, nextIv())
+                    : new IvParameterSpec(nextIv());
+        }
+
+        private AEADParameters nextParams(KeyParameter key) {
+            return new AEADParameters(key, 128, nextIv());
+        }
+
+        private byte[] nextIv() {
+            long value = ++counter;
+            for (int i = iv.length - 1; i >= iv.length - 8; i--) {
+                iv[i] = (byte) value;
+                value >>>= 8;
+            }
+            return iv;
+        }
+    }
+
+    /**
+     * The auxiliary counter for the heap taken by the full cache, zero for
+     * REINIT. It is measured after GC at setup, so it is approximate for the
+     * small caches. JMH sums the events over the measurement iterations and
+     * the forks, so every iteration counts its share of the footprint.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class FootprintCounter {
+
+        public double cacheMegabytes;
+        public double cacheBytesPerEntry;
+
+        long footprint;
+        int entries;
+
+        @Setup(Level.Iteration)
+        public void setup(BenchmarkParams params) {
+            double shares = params.getMeasurement().getCount()
+                    * Math.max(params.getForks(), 1);
+            cacheMegabytes = footprint / (1024.0 * 1024.0) / shares;
+            cacheBytesPerEntry = entries == 0
+                    ? 0 : (double) footprint / entries / shares;
+        }
+    }
+
+    /**
+     * The HMAC digest states after the inner and the outer padded keys, see
+     * RFC 2104. The BC Mac instances cannot be cloned, so the digest states
+     * are copied instead. The keys must not be longer than the digest block.
+     */
+    static class HmacState {
+
+        private final Memoable inner;
+        private final Memoable outer;
+
+        HmacState(String algorithm, byte[] key) {
+            ExtendedDigest inner = digest(algorithm);
+            ExtendedDigest outer = digest(algorithm);
+
+            byte[] pad = new byte[inner.getByteLength()];
+            System.arraycopy(key, 0, pad, 0, key.length);
+            for (int i = 0; i < pad.length; i++) {
+                pad[i] ^= 0x36;
+            }
+            inner.update(pad, 0, pad.length);
+            for (int i = 0; i < pad.length; i++) {
+                pad[i] ^= 0x36 ^ 0x5c;
+            }
+            outer.update(pad, 0, pad.length);
+
+            this.inner = (Memoable) inner;
+            this.outer = (Memoable) outer;
+        }
+
+        byte[] mac(byte[] message) {
+            Digest inner = (Digest) this.inner.copy();
+            byte[] mac = new byte[inner.getDigestSize()];
+            inner.update(message, 0, message.length);
+            inner.doFinal(mac, 0);
+
+            Digest outer = (Digest) this.outer.copy();
+            outer.update(mac, 0, mac.length);
+            outer.doFinal(mac, 0);
+            return mac;
+        }
+
+        private static ExtendedDigest digest(String algorithm) {
+            if (algorithm.equals("HmacSHA256")) {
+                return new SHA256Digest();
+            } else if (algorithm.equals("HmacSHA512")) {
+                return new SHA512Digest();
+            } else {
+                throw new IllegalArgumentException(
+                        "Unsupported algorithm: " + algorithm);
+            }
+        }
+    }
+
+    /**
+     * The LRU cache of the crypto objects by key index.
+     * It is used by one thread only.
+     */
+    static class LruCache<T> extends LinkedHashMap<Integer, T> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+        private final transient Loader<T> loader;
+
+        LruCache(int capacity, Loader<T> loader) {
+            super(16, 0.75F, true);
+            this.capacity = capacity;
+            this.loader = loader;
+        }
+
+        T get(int key) throws GeneralSecurityException {
+            T value = get((Object) key);
+            if (value == null) {
+                value = loader.load(key);
+                put(key, value);
+            }
+            return value;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, T> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    @Benchmark
+    public byte[] mac(MacProvider provider, FootprintCounter counter)
+            throws Exception {
+        return provider.function.mac(provider.nextKey(), provider.message);
+    }
+
+    @Benchmark
+    public byte[] encrypt(AeadProvider provider, FootprintCounter counter)
+            throws Exception {
+        provider.function.encrypt(
+                provider.nextKey(), provider.message, provider.output);
+        return provider.output;
+    }
+}
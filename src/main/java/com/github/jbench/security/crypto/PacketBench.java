@@ -0,0 +1,210 @@
+package com.github.jbench.security.crypto;
+
+import com.github.jbench.BenchmarkUtils;
+import org.bouncycastle.jcajce.spec.AEADParameterSpec;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.Security;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmarks for sealing and opening datagram-sized packets with AEAD
+ * ciphers, as a UDP or QUIC transport does. Every packet re-inits the cipher
+ * with a new nonce, adds the header as the associated data, and is sealed or
+ * opened in one shot.
+ *
+ * The seal and open scores are packets per second, and the sealTime and
+ * openTime scores are nanoseconds per packet.
+ */
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 2, jvmArgsAppend = {"-server", "-Xms2048M", "-Xmx2048M", "-XX:+UseG1GC"})
+@Threads(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PacketBench {
+
+    private static final int NONCE_LENGTH = 12;
+    private static final int TAG_LENGTH = 128;
+
+    static {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    @State(Scope.Benchmark)
+    public abstract static class PacketProvider {
+
+        // The BC-prefixed ones come from the BC provider
+        @Param({"AES/GCM/NoPadding",
+                "ChaCha20-Poly1305",
+                "BC-AES/GCM/NoPadding",
+                "BC-ChaCha20-Poly1305",
+                "BC-AES/GCM-SIV/NoPadding",
+                "BC-AES/CCM/NoPadding",
+                "BC-AES/OCB/NoPadding",
+                "BC-AES/EAX/NoPadding"})
+        String transformation;
+
+        @Param({"64", "256", "576", "1200", "1500"})
+        int size;
+
+        // The header length, e.g. 13 bytes for a TLS 1.2 record
+        @Param({"13", "64"})
+        int aad;
+
+        SecretKey key;
+        BenchmarkUtils.RotatingIvs nonces;
+
+        byte[] header;
+        byte[] payload;
+        byte[][] packets;
+
+        Cipher cipher;
+        byte[] output;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            key = new SecretKeySpec(
+                    BenchmarkUtils.randomBytes(keyLength()), keyAlgorithm());
+            nonces = new BenchmarkUtils.RotatingIvs(NONCE_LENGTH);
+
+            header = BenchmarkUtils.bytes(aad);
+            payload = BenchmarkUtils.bytes(size);
+
+            cipher = Cipher.getInstance(algorithm(), provider());
+            packets = new byte[nonces.count()][];
+            for (int i = 0; i < packets.length; i++) {
+                packets[i] = seal(cipher, i);
+            }
+
+            output = new byte[size + TAG_LENGTH / 8];
+        }
+
+        abstract int opmode();
+
+        /**
+         * Init the cipher with the next nonce, and add the header.
+         */
+        void next() throws Exception {
+            nonces.next();
+            init(cipher, opmode(), nonces.index());
+            cipher.updateAAD(header);
+        }
+
+        byte[] packet() {
+            return packets[nonces.index()];
+        }
+
+        private byte[] seal(Cipher cipher, int index) throws Exception {
+            init(cipher, Cipher.ENCRYPT_MODE, index);
+            cipher.updateAAD(header);
+            return cipher.doFinal(payload);
+        }
+
+        private void init(Cipher cipher, int opmode, int index)
+                throws Exception {
+            cipher.init(opmode, key, paramSpec(nonces.get(index)));
+        }
+
+        private String algorithm() {
+            return transformation.startsWith("BC-")
+                    ? transformation.substring(3) : transformation;
+        }
+
+        private String provider() {
+            return transformation.startsWith("BC-") ? "BC" : "SunJCE";
+        }
+
+        private boolean chacha20() {
+            return transformation.contains("ChaCha20");
+        }
+
+        private int keyLength() {
+            return chacha20() ? 32 : 16;
+        }
+
+        private String keyAlgorithm() {
+            return chacha20() ? "ChaCha20" : "AES";
+        }
+
+        private AlgorithmParameterSpec paramSpec(byte[] nonce) {
+            if (transformation.startsWith("BC-")) {
+                return new AEADParameterSpec(nonce, TAG_LENGTH);
+            } else if (chacha20()) {
+                return new IvParameterSpec(nonce);
+            } else {
+                return new GCMParameterSpec(TAG_LENGTH, nonce);
+            }
+        }
+    }
+
+    public static class Sealer extends PacketProvider {
+
+        int opmode() {
+            return Cipher.ENCRYPT_MODE;
+        }
+    }
+
+    public static class Opener extends PacketProvider {
+
+        int opmode() {
+            return Cipher.DECRYPT_MODE;
+        }
+    }
+
+    @Benchmark
+    public int seal(Sealer sealer) throws Exception {
+        return sealPacket(sealer);
+    }
+
+    @Benchmark
+    public int open(Opener opener) throws Exception {
+        return openPacket(opener);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int sealTime(Sealer sealer) throws Exception {
+        return sealPacket(sealer);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int openTime(Opener opener) throws Exception {
+        return openPacket(opener);
+    }
+
+    private static int sealPacket(Sealer sealer) throws Exception {
+        sealer.next();
+        return sealer.cipher.doFinal(sealer.payload, 0, sealer.payload.length,
+                sealer.output, 0);
+    }
+
+    private static int openPacket(Opener opener) throws Exception {
+        opener.next();
+        byte[] packet = opener.packet();
+        return opener.cipher.doFinal(packet, 0, packet.length,
+                opener.output, 0);
+    }
+}
@@ -0,0 +1,393 @@
+package com.github.jbench.security.crypto;
+
+import com.github.jbench.BenchmarkUtils;
+import com.github.jbench.ThroughputCounter;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The benchmarks for the storage pipeline, which compresses, encrypts and
+ * authenticates the message chunk by chunk, and the reverse pipeline.
+ *
+ * The sequential benchmarks run all the stages in the benchmark thread. The
+ * pipelined benchmarks run every stage in its own thread, so the stages work
+ * on different chunks at the same time.
+ *
+ * The StageCounter results are the seconds spent in each stage per second,
+ * i.e. the share of the time. In the pipelined benchmarks, the shares can add
+ * up to more than 1, and the busiest stage is the bottleneck.
+ */
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 2, jvmArgsAppend = {"-server", "-Xms2048M", "-Xmx2048M", "-XX:+UseG1GC"})
+@Threads(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PipelineBench {
+
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH = 128;
+
+    /**
+     * The time spent in each stage, in seconds.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class StageCounter {
+
+        public double compression;
+        public double cipher;
+        public double mac;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            compression = 0;
+            cipher = 0;
+            mac = 0;
+        }
+
+        void add(long[] nanos) {
+            compression += nanos[0] / 1e9;
+            cipher += nanos[1] / 1e9;
+            mac += nanos[2] / 1e9;
+        }
+    }
+
+    /**
+     * An encrypted and authenticated chunk.
+     */
+    static class Record {
+
+        // The IV and the ciphertext
+        final byte[] ciphertext;
+        final byte[] tag;
+
+        Record(byte[] ciphertext, byte[] tag) {
+            this.ciphertext = ciphertext;
+            this.tag = tag;
+        }
+    }
+
+    /**
+     * The stage objects. In the pipelined benchmarks, every stage object is
+     * used by its own stage thread only.
+     */
+    static class Stages {
+
+        private final Deflater deflater;
+        private final Inflater inflater = new Inflater();
+        private final byte[] compressBuffer;
+
+        private final Cipher cipher;
+        private final BenchmarkUtils.RotatingIvs ivs;
+
+        private final Mac mac;
+
+        Stages(int level, int chunk, int ivCount) throws GeneralSecurityException {
+            deflater = new Deflater(level);
+            compressBuffer = new byte[chunk + chunk / 8 + 64];
+
+            cipher = Cipher.getInstance("AES/GCM/NoPadding", "SunJCE");
+            ivs = new BenchmarkUtils.RotatingIvs(IV_LENGTH, ivCount);
+
+            mac = Mac.getInstance("HmacSHA256", "SunJCE");
+            mac.init(BenchmarkUtils.AES_KEY_32);
+        }
+
+        byte[] compress(byte[] message, int offset, int length) {
+            deflater.reset();
+            deflater.setInput(message, offset, length);
+            deflater.finish();
+            int compressedLength = 0;
+            while (!deflater.finished()) {
+                compressedLength += deflater.deflate(compressBuffer,
+                        compressedLength, compressBuffer.length - compressedLength);
+            }
+            return Arrays.copyOf(compressBuffer, compressedLength);
+        }
+
+        void decompress(byte[] compressed, byte[] message, int offset,
+                        int length) throws DataFormatException {
+            inflater.reset();
+            inflater.setInput(compressed);
+            int decompressedLength = 0;
+            while (decompressedLength < length) {
+                decompressedLength += inflater.inflate(message,
+                        offset + decompressedLength, length - decompressedLength);
+            }
+        }
+
+        // Every chunk takes a new IV
+        byte[] encrypt(byte[] plaintext) throws GeneralSecurityException {
+            byte[] iv = ivs.next();
+            cipher.init(Cipher.ENCRYPT_MODE, BenchmarkUtils.AES_KEY_16,
+                    new GCMParameterSpec(TAG_LENGTH, iv));
+
+            byte[] ciphertext = new byte[
+                    IV_LENGTH + cipher.getOutputSize(plaintext.length)];
+            System.arraycopy(iv, 0, ciphertext, 0, IV_LENGTH);
+            cipher.doFinal(plaintext, 0, plaintext.length, ciphertext, IV_LENGTH);
+            return ciphertext;
+        }
+
+        byte[] decrypt(byte[] ciphertext) throws GeneralSecurityException {
+            cipher.init(Cipher.DECRYPT_MODE, BenchmarkUtils.AES_KEY_16,
+                    new GCMParameterSpec(TAG_LENGTH, ciphertext, 0, IV_LENGTH));
+            return cipher.doFinal(ciphertext, IV_LENGTH,
+                    ciphertext.length - IV_LENGTH);
+        }
+
+        Record authenticate(byte[] ciphertext) {
+            return new Record(ciphertext, mac.doFinal(ciphertext));
+        }
+
+        byte[] verify(Record record) throws AEADBadTagException {
+            if (!MessageDigest.isEqual(mac.doFinal(record.ciphertext), record.tag)) {
+                throw new AEADBadTagException("MAC check failed");
+            }
+            return record.ciphertext;
+        }
+    }
+
+    @FunctionalInterface
+    interface Stage<T, R> {
+
+        R apply(T input) throws Exception;
+    }
+
+    @State(Scope.Benchmark)
+    public static class PipelineProvider {
+
+        // RANDOM, TEXT or the compressibility in percent
+        @Param({"RANDOM", "TEXT", "50%", "90%"})
+        String data;
+
+        @Param({"1048576", "16777216"})
+        int size;
+
+        @Param({"16384", "65536"})
+        int chunk;
+
+        // The Deflater compression level
+        @Param({"1", "6"})
+        int level;
+
+        byte[] message;
+        double sizeInMB;
+        int chunkCount;
+
+        Stages stages;
+        Stages pipelineStages;
+        Record[] records;
+        byte[] output;
+
+        ExecutorService compressionExecutor;
+        ExecutorService cipherExecutor;
+        ExecutorService macExecutor;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            message = BenchmarkUtils.data(data, size);
+            sizeInMB = BenchmarkUtils.toMB(size);
+            chunkCount = (size + chunk - 1) / chunk;
+
+            // One more IV than chunks, so a cipher never reuses the last IV
+            stages = new Stages(level, chunk, chunkCount + 1);
+            pipelineStages = new Stages(level, chunk, chunkCount + 1);
+
+            records = new Record[chunkCount];
+            for (int i = 0; i < chunkCount; i++) {
+                records[i] = stages.authenticate(stages.encrypt(stages.compress(
+                        message, offset(i), length(i))));
+            }
+            output = new byte[size];
+
+            compressionExecutor = Executors.newSingleThreadExecutor();
+            cipherExecutor = Executors.newSingleThreadExecutor();
+            macExecutor = Executors.newSingleThreadExecutor();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            compressionExecutor.shutdown();
+            cipherExecutor.shutdown();
+            macExecutor.shutdown();
+        }
+
+        int offset(int chunkIndex) {
+            return chunkIndex * chunk;
+        }
+
+        int length(int chunkIndex) {
+            return Math.min(chunk, size - offset(chunkIndex));
+        }
+    }
+
+    /**
+     * Compress, encrypt and authenticate the chunks in the benchmark thread.
+     */
+    @Benchmark
+    public Record[] store(PipelineProvider provider, ThroughputCounter counter,
+                          StageCounter stageCounter) throws Exception {
+        counter.megabytes += provider.sizeInMB;
+        Stages stages = provider.stages;
+        long[] nanos = new long[3];
+        Record[] records = new Record[provider.chunkCount];
+        for (int i = 0; i < records.length; i++) {
+            int offset = provider.offset(i);
+            int length = provider.length(i);
+            byte[] compressed = timed(nanos, 0,
+                    message -> stages.compress(message, offset, length),
+                    provider.message);
+            byte[] ciphertext = timed(nanos, 1, stages::encrypt, compressed);
+            records[i] = timed(nanos, 2, stages::authenticate, ciphertext);
+        }
+        stageCounter.add(nanos);
+        return records;
+    }
+
+    /**
+     * Verify, decrypt and decompress the chunks in the benchmark thread.
+     */
+    @Benchmark
+    public byte[] load(PipelineProvider provider, ThroughputCounter counter,
+                       StageCounter stageCounter) throws Exception {
+        counter.megabytes += provider.sizeInMB;
+        Stages stages = provider.stages;
+        long[] nanos = new long[3];
+        for (int i = 0; i < provider.chunkCount; i++) {
+            int offset = provider.offset(i);
+            int length = provider.length(i);
+            byte[] ciphertext = timed(nanos, 2, stages::verify, provider.records[i]);
+            byte[] compressed = timed(nanos, 1, stages::decrypt, ciphertext);
+            timed(nanos, 0, input -> {
+                stages.decompress(input, provider.output, offset, length);
+                return null;
+            }, compressed);
+        }
+        stageCounter.add(nanos);
+        return provider.output;
+    }
+
+    /**
+     * Compress, encrypt and authenticate the chunks, every stage in its own
+     * thread.
+     */
+    @Benchmark
+    public Record[] storePipelined(PipelineProvider provider,
+                                   ThroughputCounter counter,
+                                   StageCounter stageCounter) {
+        counter.megabytes += provider.sizeInMB;
+        Stages stages = provider.pipelineStages;
+        long[] nanos = new long[3];
+        @SuppressWarnings("unchecked")
+        CompletableFuture<Record>[] futures
+                = new CompletableFuture[provider.chunkCount];
+        for (int i = 0; i < futures.length; i++) {
+            int offset = provider.offset(i);
+            int length = provider.length(i);
+            futures[i] = CompletableFuture
+                    .supplyAsync(() -> timedUnchecked(nanos, 0,
+                            message -> stages.compress(message, offset, length),
+                            provider.message), provider.compressionExecutor)
+                    .thenApplyAsync(compressed -> timedUnchecked(
+                            nanos, 1, stages::encrypt, compressed),
+                            provider.cipherExecutor)
+                    .thenApplyAsync(ciphertext -> timedUnchecked(
+                            nanos, 2, stages::authenticate, ciphertext),
+                            provider.macExecutor);
+        }
+
+        Record[] records = new Record[futures.length];
+        for (int i = 0; i < futures.length; i++) {
+            records[i] = futures[i].join();
+        }
+        stageCounter.add(nanos);
+        return records;
+    }
+
+    /**
+     * Verify, decrypt and decompress the chunks, every stage in its own
+     * thread.
+     */
+    @Benchmark
+    public byte[] loadPipelined(PipelineProvider provider,
+                                ThroughputCounter counter,
+                                StageCounter stageCounter) {
+        counter.megabytes += provider.sizeInMB;
+        Stages stages = provider.pipelineStages;
+        long[] nanos = new long[3];
+        CompletableFuture<?>[] futures = new CompletableFuture[provider.chunkCount];
+        for (int i = 0; i < futures.length; i++) {
+            Record record = provider.records[i];
+            int offset = provider.offset(i);
+            int length = provider.length(i);
+            futures[i] = CompletableFuture
+                    .supplyAsync(() -> timedUnchecked(
+                            nanos, 2, stages::verify, record),
+                            provider.macExecutor)
+                    .thenApplyAsync(ciphertext -> timedUnchecked(
+                            nanos, 1, stages::decrypt, ciphertext),
+                            provider.cipherExecutor)
+                    .thenApplyAsync(compressed -> timedUnchecked(nanos, 0,
+                            input -> {
+                                stages.decompress(input, provider.output,
+                                        offset, length);
+                                return null;
+                            }, compressed), provider.compressionExecutor);
+        }
+
+        CompletableFuture.allOf(futures).join();
+        stageCounter.add(nanos);
+        return provider.output;
+    }
+
+    // Every stage index is updated by one thread only
+    private static <T, R> R timed(long[] nanos, int stageIndex,
+                                  Stage<T, R> stage, T input) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return stage.apply(input);
+        } finally {
+            nanos[stageIndex] += System.nanoTime() - start;
+        }
+    }
+
+    private static <T, R> R timedUnchecked(long[] nanos, int stageIndex,
+                                           Stage<T, R> stage, T input) {
+        try {
+            return timed(nanos, stageIndex, stage, input);
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.github.jbench.security.crypto;
+
+import com.github.jbench.CachingCryptoFactory;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.Provider;
+import java.security.Security;
+import java.security.Signature;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmarks for looking up the crypto objects from the providers by all
+ * the threads at the same time.
+ *
+ * The lookup forms are:
+ * NAME, getInstance with the provider name;
+ * OBJECT, getInstance with the Provider object;
+ * DEFAULT, getInstance without provider, which ignores the product;
+ * CACHED, CachingCryptoFactory with the provider name.
+ */
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 2, jvmArgsAppend = {"-server", "-Xms2048M", "-Xmx2048M", "-XX:+UseG1GC"})
+@Threads(Threads.MAX)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ProviderLookupBench {
+
+    static {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    @FunctionalInterface
+    interface Lookup {
+
+        Object getInstance() throws GeneralSecurityException;
+    }
+
+    @FunctionalInterface
+    interface ByName {
+
+        Object getInstance(String algorithm, String provider)
+                throws GeneralSecurityException;
+    }
+
+    @FunctionalInterface
+    interface ByObject {
+
+        Object getInstance(String algorithm, Provider provider)
+                throws GeneralSecurityException;
+    }
+
+    @FunctionalInterface
+    interface ByDefault {
+
+        Object getInstance(String algorithm) throws GeneralSecurityException;
+    }
+
+    @State(Scope.Benchmark)
+    public static class LookupProvider {
+
+        @Param({"JDK", "BC"})
+        String product;
+
+        @Param({"Cipher", "MessageDigest", "Mac", "Signature"})
+        String engine;
+
+        @Param({"NAME", "OBJECT", "DEFAULT", "CACHED"})
+        String form;
+
+        String algorithm;
+        String providerName;
+        Provider provider;
+        Lookup lookup;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            if (engine.equals("Cipher")) {
+                algorithm = "AES/GCM/NoPadding";
+                providerName = provider("SunJCE");
+                lookup = lookup(Cipher::getInstance, Cipher::getInstance,
+                        Cipher::getInstance, CachingCryptoFactory::cipher);
+            } else if (engine.equals("MessageDigest")) {
+                algorithm = "SHA-256";
+                providerName = provider("SUN");
+                lookup = lookup(MessageDigest::getInstance,
+                        MessageDigest::getInstance, MessageDigest::getInstance,
+                        CachingCryptoFactory::messageDigest);
+            } else if (engine.equals("Mac")) {
+                algorithm = "HmacSHA256";
+                providerName = provider("SunJCE");
+                lookup = lookup(Mac::getInstance, Mac::getInstance,
+                        Mac::getInstance, CachingCryptoFactory::mac);
+            } else if (engine.equals("Signature")) {
+                algorithm = "SHA256withECDSA";
+                providerName = provider("SunEC");
+                lookup = lookup(Signature::getInstance, Signature::getInstance,
+                        Signature::getInstance, CachingCryptoFactory::signature);
+            } else {
+                throw new IllegalArgumentException("Unknown engine: " + engine);
+            }
+
+            provider = Security.getProvider(providerName);
+        }
+
+        private String provider(String jdkProvider) {
+            return product.equals("JDK") ? jdkProvider : product;
+        }
+
+        private Lookup lookup(ByName byName, ByObject byObject,
+                              ByDefault byDefault, ByName cached) {
+            if (form.equals("NAME")) {
+                return () -> byName.getInstance(algorithm, providerName);
+            } else if (form.equals("OBJECT")) {
+                return () -> byObject.getInstance(algorithm, provider);
+            } else if (form.equals("DEFAULT")) {
+                return () -> byDefault.getInstance(algorithm);
+            } else if (form.equals("CACHED")) {
+                return () -> cached.getInstance(algorithm, providerName);
+            }
+
+            throw new IllegalArgumentException("Unknown form: " + form);
+        }
+    }
+
+    @Benchmark
+    public Object getInstance(LookupProvider provider) throws Exception {
+        return provider.lookup.getInstance();
+    }
+}
@@ -0,0 +1,197 @@
+package com.github.jbench.security.crypto;
+
+import com.github.jbench.BenchmarkUtils;
+import com.github.jbench.Instances;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyAgreement;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.Security;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmarks for the throughput scaling over threads. All the threads
+ * get the crypto objects from the same instances strategy. The nonces come
+ * from the shared SecureRandom in BenchmarkUtils.
+ *
+ * Use com.github.jbench.runner.ScalingRunner to run them with 1..N threads.
+ */
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 2, jvmArgsAppend = {"-server", "-Xms2048M", "-Xmx2048M", "-XX:+UseG1GC"})
+@Threads(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ScalingBench {
+
+    static {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    @State(Scope.Benchmark)
+    public static class ScalingProvider {
+
+        @Param({"JDK", "BC"})
+        String product;
+
+        @Param({"FRESH", "SHARED", "THREAD_LOCAL", "POOL"})
+        String strategy;
+
+        @Param({"8"})
+        int poolSize;
+
+        @Param({"1024"})
+        int size;
+
+        byte[] message;
+        KeyPair keyPair;
+        KeyPair peerKeyPair;
+        byte[] sig;
+
+        Instances<MessageDigest> digests;
+        Instances<Mac> macs;
+        Instances<Cipher> ciphers;
+        Instances<Signature> signers;
+        Instances<Signature> verifiers;
+        Instances<KeyAgreement> keyExes;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            message = BenchmarkUtils.bytes(size);
+            keyPair = keyPair();
+            peerKeyPair = keyPair();
+
+            Signature signer = Signature.getInstance(
+                    "SHA256withECDSA", provider("SunEC"));
+            signer.initSign(keyPair.getPrivate());
+            signer.update(message);
+            sig = signer.sign();
+
+            digests = instances(() -> MessageDigest.getInstance(
+                    "SHA-256", provider("SUN")));
+            macs = instances(() -> {
+                Mac mac = Mac.getInstance("HmacSHA256", provider("SunJCE"));
+                mac.init(BenchmarkUtils.AES_KEY_16);
+                return mac;
+            });
+            ciphers = instances(() -> Cipher.getInstance(
+                    "AES/GCM/NoPadding", provider("SunJCE")));
+            signers = instances(() -> {
+                Signature signature = Signature.getInstance(
+                        "SHA256withECDSA", provider("SunEC"));
+                signature.initSign(keyPair.getPrivate());
+                return signature;
+            });
+            verifiers = instances(() -> {
+                Signature signature = Signature.getInstance(
+                        "SHA256withECDSA", provider("SunEC"));
+                signature.initVerify(keyPair.getPublic());
+                return signature;
+            });
+            keyExes = instances(() -> KeyAgreement.getInstance(
+                    "ECDH", provider("SunEC")));
+        }
+
+        private <T> Instances<T> instances(Instances.Factory<T> factory)
+                throws Exception {
+            return Instances.of(strategy, factory, poolSize);
+        }
+
+        private String provider(String jdkProvider) {
+            return product.equals("JDK") ? jdkProvider : product;
+        }
+
+        private KeyPair keyPair() throws Exception {
+            KeyPairGenerator keyPairGen = KeyPairGenerator.getInstance(
+                    "EC", provider("SunEC"));
+            keyPairGen.initialize(new ECGenParameterSpec("SECP256R1"));
+            return keyPairGen.generateKeyPair();
+        }
+    }
+
+    @Benchmark
+    public byte[] digest(ScalingProvider provider) throws Exception {
+        MessageDigest messageDigest = provider.digests.acquire();
+        try {
+            return messageDigest.digest(provider.message);
+        } finally {
+            provider.digests.release(messageDigest);
+        }
+    }
+
+    @Benchmark
+    public byte[] mac(ScalingProvider provider) throws Exception {
+        Mac mac = provider.macs.acquire();
+        try {
+            return mac.doFinal(provider.message);
+        } finally {
+            provider.macs.release(mac);
+        }
+    }
+
+    @Benchmark
+    public byte[] encrypt(ScalingProvider provider) throws Exception {
+        Cipher cipher = provider.ciphers.acquire();
+        try {
+            cipher.init(Cipher.ENCRYPT_MODE, BenchmarkUtils.AES_KEY_16,
+                    new GCMParameterSpec(128, BenchmarkUtils.randomBytes(12)));
+            return cipher.doFinal(provider.message);
+        } finally {
+            provider.ciphers.release(cipher);
+        }
+    }
+
+    @Benchmark
+    public byte[] sign(ScalingProvider provider) throws Exception {
+        Signature signature = provider.signers.acquire();
+        try {
+            signature.update(provider.message);
+            return signature.sign();
+        } finally {
+            provider.signers.release(signature);
+        }
+    }
+
+    @Benchmark
+    public boolean verify(ScalingProvider provider) throws Exception {
+        Signature signature = provider.verifiers.acquire();
+        try {
+            signature.update(provider.message);
+            return signature.verify(provider.sig);
+        } finally {
+            provider.verifiers.release(signature);
+        }
+    }
+
+    @Benchmark
+    public byte[] keyEx(ScalingProvider provider) throws Exception {
+        KeyAgreement keyEx = provider.keyExes.acquire();
+        try {
+            keyEx.init(provider.keyPair.getPrivate());
+            keyEx.doPhase(provider.peerKeyPair.getPublic(), true);
+            return keyEx.generateSecret();
+        } finally {
+            provider.keyExes.release(keyEx);
+        }
+    }
+}
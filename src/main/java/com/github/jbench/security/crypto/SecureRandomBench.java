@@ -0,0 +1,150 @@
+package com.github.jbench.security.crypto;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.NoSuchProviderException;
+import java.security.SecureRandom;
+import java.security.Security;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmarks for SecureRandom, from nonce-sized to key-material-sized
+ * requests.
+ *
+ * The strategies are:
+ * SHARED, all the threads call one instance;
+ * THREAD_LOCAL, every thread calls its own instance;
+ * BUFFERED, every thread takes the bytes from its own buffer, which is
+ * refilled in bulk from the shared instance.
+ *
+ * Use com.github.jbench.runner.ScalingRunner to run them with 1..N threads.
+ */
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 2, jvmArgsAppend = {"-server", "-Xms2048M", "-Xmx2048M", "-XX:+UseG1GC"})
+@Threads(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SecureRandomBench {
+
+    static {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    @FunctionalInterface
+    interface Source {
+
+        void nextBytes(byte[] bytes);
+    }
+
+    @State(Scope.Benchmark)
+    public static class RandomProvider {
+
+        // The BC-prefixed ones come from the BC provider
+        @Param({"NativePRNG", "NativePRNGNonBlocking", "DRBG", "SHA1PRNG",
+                "BC-DEFAULT", "BC-NONCEANDIV"})
+        String algorithm;
+
+        @Param({"SHARED", "THREAD_LOCAL", "BUFFERED"})
+        String strategy;
+
+        @Param({"12", "16", "32", "256", "4096"})
+        int size;
+
+        // BC DRBG generates at most 32 KB per request
+        @Param({"16384"})
+        int bufferSize;
+
+        Source source;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            if (strategy.equals("SHARED")) {
+                source = secureRandom()::nextBytes;
+            } else if (strategy.equals("THREAD_LOCAL")) {
+                ThreadLocal<SecureRandom> randoms
+                        = ThreadLocal.withInitial(this::newSecureRandom);
+                source = bytes -> randoms.get().nextBytes(bytes);
+            } else if (strategy.equals("BUFFERED")) {
+                SecureRandom random = secureRandom();
+                ThreadLocal<RandomBuffer> buffers = ThreadLocal.withInitial(
+                        () -> new RandomBuffer(random, bufferSize));
+                source = bytes -> buffers.get().nextBytes(bytes);
+            } else {
+                throw new IllegalArgumentException(
+                        "Unknown strategy: " + strategy);
+            }
+        }
+
+        private SecureRandom secureRandom()
+                throws NoSuchAlgorithmException, NoSuchProviderException {
+            if (algorithm.startsWith("BC-")) {
+                return SecureRandom.getInstance(algorithm.substring(3), "BC");
+            }
+
+            return SecureRandom.getInstance(algorithm);
+        }
+
+        private SecureRandom newSecureRandom() {
+            try {
+                return secureRandom();
+            } catch (NoSuchAlgorithmException | NoSuchProviderException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Pre-generate the random bytes in bulk, and hand them out in slices.
+     * It is used by one thread only.
+     */
+    static class RandomBuffer {
+
+        private final SecureRandom random;
+        private final byte[] buffer;
+        private int position;
+
+        RandomBuffer(SecureRandom random, int size) {
+            this.random = random;
+            buffer = new byte[size];
+            position = size;
+        }
+
+        void nextBytes(byte[] bytes) {
+            int offset = 0;
+            while (offset < bytes.length) {
+                if (position == buffer.length) {
+                    random.nextBytes(buffer);
+                    position = 0;
+                }
+
+                int length = Math.min(
+                        bytes.length - offset, buffer.length - position);
+                System.arraycopy(buffer, position, bytes, offset, length);
+                position += length;
+                offset += length;
+            }
+        }
+    }
+
+    @Benchmark
+    public byte[] nextBytes(RandomProvider provider) {
+        byte[] bytes = new byte[provider.size];
+        provider.source.nextBytes(bytes);
+        return bytes;
+    }
+}
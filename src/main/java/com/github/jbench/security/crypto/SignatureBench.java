@@ -1,6 +1,7 @@
 package com.github.jbench.security.crypto;
 
 import com.github.jbench.BenchmarkUtils;
+import com.github.jbench.ThroughputCounter;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
@@ -38,8 +39,6 @@ import java.util.concurrent.TimeUnit;
 @OutputTimeUnit(TimeUnit.SECONDS)
 public class SignatureBench {
 
-    private final static byte[] MESSAGE = BenchmarkUtils.DATA_1MB;
-
     static {
         Security.addProvider(new BouncyCastleProvider());
     }
@@ -54,12 +53,22 @@ public class SignatureBench {
                 "SHA1withRSA", "SHA256withRSA", "SHA3-256withRSA", "RSASSA-PSS"})
         String algorithm;
 
+        @Param({"16", "64", "256", "1024", "4096", "16384", "65536",
+                "262144", "1048576", "4194304", "16777216"})
+        int size;
+
+        byte[] message;
+        double sizeInMB;
+
         String provider;
         KeyPair keyPair;
         Signature signature;
 
         @Setup(Level.Trial)
         public void setup() throws Exception {
+            message = BenchmarkUtils.bytes(size);
+            sizeInMB = BenchmarkUtils.toMB(size);
+
             provider = provider();
             keyPair = keyPair();
             signature = Signature.getInstance(algorithm, provider);
@@ -147,22 +156,91 @@ public class SignatureBench {
             super.initSignature();
 
             signature.initSign(keyPair.getPrivate());
-            signature.update(MESSAGE, 0, MESSAGE.length);
+            signature.update(message, 0, message.length);
             sig = signature.sign();
 
             signature.initVerify(keyPair.getPublic());
         }
     }
 
+    /**
+     * Sign the message in chunks, like a stream of TLS records.
+     */
+    public static class StreamSigner extends Signer {
+
+        @Param({"4096", "16384", "65536"})
+        int chunk;
+    }
+
+    /**
+     * Verify the message in chunks, like a stream of TLS records.
+     */
+    public static class StreamVerifier extends Verifier {
+
+        @Param({"4096", "16384", "65536"})
+        int chunk;
+    }
+
     @Benchmark
-    public byte[] sign(Signer signer) throws SignatureException {
-        signer.signature.update(MESSAGE, 0, MESSAGE.length);
+    public byte[] sign(Signer signer, ThroughputCounter counter)
+            throws SignatureException {
+        counter.megabytes += signer.sizeInMB;
+        signer.signature.update(signer.message, 0, signer.message.length);
         return signer.signature.sign();
     }
 
     @Benchmark
-    public boolean verify(Verifier verifier) throws SignatureException {
-        verifier.signature.update(MESSAGE, 0, MESSAGE.length);
+    public boolean verify(Verifier verifier, ThroughputCounter counter)
+            throws SignatureException {
+        counter.megabytes += verifier.sizeInMB;
+        verifier.signature.update(verifier.message, 0, verifier.message.length);
         return verifier.signature.verify(verifier.sig);
     }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public byte[] signLatency(Signer signer) throws SignatureException {
+        signer.signature.update(signer.message, 0, signer.message.length);
+        return signer.signature.sign();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean verifyLatency(Verifier verifier) throws SignatureException {
+        verifier.signature.update(verifier.message, 0, verifier.message.length);
+        return verifier.signature.verify(verifier.sig);
+    }
+
+    /**
+     * Call update per chunk, then sign. The one-shot baseline is sign.
+     */
+    @Benchmark
+    public byte[] signStream(StreamSigner signer, ThroughputCounter counter)
+            throws SignatureException {
+        counter.megabytes += signer.sizeInMB;
+        update(signer.signature, signer.message, signer.chunk);
+        return signer.signature.sign();
+    }
+
+    /**
+     * Call update per chunk, then verify. The one-shot baseline is verify.
+     */
+    @Benchmark
+    public boolean verifyStream(StreamVerifier verifier,
+                                ThroughputCounter counter)
+            throws SignatureException {
+        counter.megabytes += verifier.sizeInMB;
+        update(verifier.signature, verifier.message, verifier.chunk);
+        return verifier.signature.verify(verifier.sig);
+    }
+
+    private static void update(Signature signature, byte[] message, int chunk)
+            throws SignatureException {
+        for (int offset = 0; offset < message.length; offset += chunk) {
+            signature.update(message, offset,
+                    Math.min(chunk, message.length - offset));
+        }
+    }
 }
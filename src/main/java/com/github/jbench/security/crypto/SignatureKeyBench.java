@@ -0,0 +1,198 @@
+package com.github.jbench.security.crypto;
+
+import com.github.jbench.BenchmarkUtils;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.Security;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.RSAKeyGenParameterSpec;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmarks for signing small messages with the curves and the moduli,
+ * which isolate the private and public key operations from hashing.
+ *
+ * The input forms are:
+ * MESSAGE, sign the message with the digest matching the key strength, e.g.
+ * SHA384withECDSA for P-384;
+ * PREHASHED, sign the digest of the message, which is computed at setup,
+ * with NONEwithECDSA or NONEwithRSA. The RSA input is the DigestInfo, so the
+ * signature is the same as SHA256withRSA. EdDSA has no prehashed form here,
+ * and always signs the message.
+ */
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 2, jvmArgsAppend = {"-server", "-Xms2048M", "-Xmx2048M", "-XX:+UseG1GC"})
+@Threads(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SignatureKeyBench {
+
+    // The DigestInfo prefix of SHA-256, see RFC 8017 section 9.2
+    private static final byte[] SHA256_DIGEST_INFO = BenchmarkUtils.toBytes(
+            "3031300d060960864801650304020105000420");
+
+    static {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    @State(Scope.Benchmark)
+    public abstract static class SignatureProvider {
+
+        @Param({"JDK", "BC"})
+        String product;
+
+        @Param({"P-256", "P-384", "P-521", "Ed25519", "Ed448",
+                "RSA-2048", "RSA-3072", "RSA-4096"})
+        String key;
+
+        @Param({"MESSAGE", "PREHASHED"})
+        String input;
+
+        @Param({"32", "64", "256", "1024"})
+        int size;
+
+        byte[] data;
+
+        KeyPair keyPair;
+        Signature signature;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            byte[] message = BenchmarkUtils.bytes(size);
+            data = prehashed() ? prehash(message) : message;
+
+            keyPair = keyPair();
+            signature = Signature.getInstance(algorithm(), signatureProvider());
+            initSignature();
+        }
+
+        abstract void initSignature() throws Exception;
+
+        private boolean prehashed() {
+            return input.equals("PREHASHED") && !key.startsWith("Ed");
+        }
+
+        private String provider() {
+            if (product.equals("JDK")) {
+                return key.startsWith("RSA") ? "SunRsaSign" : "SunEC";
+            }
+
+            return product;
+        }
+
+        private String signatureProvider() {
+            // JDK implements NONEwithRSA with the RSA cipher
+            if (product.equals("JDK") && key.startsWith("RSA") && prehashed()) {
+                return "SunJCE";
+            }
+
+            return provider();
+        }
+
+        private String digest() {
+            if (key.equals("P-384")) {
+                return "SHA-384";
+            } else if (key.equals("P-521")) {
+                return "SHA-512";
+            }
+
+            return "SHA-256";
+        }
+
+        private String algorithm() {
+            if (key.startsWith("Ed")) {
+                return key;
+            }
+
+            String digest = prehashed() ? "NONE" : digest().replace("-", "");
+            return digest + (key.startsWith("RSA") ? "withRSA" : "withECDSA");
+        }
+
+        private byte[] prehash(byte[] message) throws Exception {
+            byte[] digest = MessageDigest.getInstance(digest()).digest(message);
+            if (!key.startsWith("RSA")) {
+                return digest;
+            }
+
+            byte[] digestInfo = new byte[SHA256_DIGEST_INFO.length + digest.length];
+            System.arraycopy(SHA256_DIGEST_INFO, 0, digestInfo, 0,
+                    SHA256_DIGEST_INFO.length);
+            System.arraycopy(digest, 0, digestInfo, SHA256_DIGEST_INFO.length,
+                    digest.length);
+            return digestInfo;
+        }
+
+        private KeyPair keyPair() throws Exception {
+            KeyPairGenerator keyPairGen;
+            if (key.startsWith("P-")) {
+                keyPairGen = KeyPairGenerator.getInstance("EC", provider());
+                keyPairGen.initialize(new ECGenParameterSpec(
+                        "secp" + key.substring(2) + "r1"));
+            } else if (key.startsWith("Ed")) {
+                keyPairGen = KeyPairGenerator.getInstance(key, provider());
+            } else if (key.startsWith("RSA-")) {
+                keyPairGen = KeyPairGenerator.getInstance("RSA", provider());
+                keyPairGen.initialize(new RSAKeyGenParameterSpec(
+                        Integer.parseInt(key.substring(4)),
+                        RSAKeyGenParameterSpec.F4));
+            } else {
+                throw new IllegalArgumentException("Unsupported key: " + key);
+            }
+
+            return keyPairGen.generateKeyPair();
+        }
+    }
+
+    public static class Signer extends SignatureProvider {
+
+        @Override
+        void initSignature() throws Exception {
+            signature.initSign(keyPair.getPrivate());
+        }
+    }
+
+    public static class Verifier extends SignatureProvider {
+
+        byte[] sig;
+
+        @Override
+        void initSignature() throws Exception {
+            signature.initSign(keyPair.getPrivate());
+            signature.update(data, 0, data.length);
+            sig = signature.sign();
+
+            signature.initVerify(keyPair.getPublic());
+        }
+    }
+
+    @Benchmark
+    public byte[] sign(Signer signer) throws SignatureException {
+        signer.signature.update(signer.data, 0, signer.data.length);
+        return signer.signature.sign();
+    }
+
+    @Benchmark
+    public boolean verify(Verifier verifier) throws SignatureException {
+        verifier.signature.update(verifier.data, 0, verifier.data.length);
+        return verifier.signature.verify(verifier.sig);
+    }
+}
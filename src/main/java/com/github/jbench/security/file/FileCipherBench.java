@@ -0,0 +1,303 @@
+package com.github.jbench.security.file;
+
+import com.github.jbench.BenchmarkUtils;
+import com.github.jbench.ThroughputCounter;
+import org.bouncycastle.jcajce.spec.AEADParameterSpec;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Cipher;
+import javax.crypto.CipherInputStream;
+import javax.crypto.CipherOutputStream;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.Security;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmarks for encrypting a file into another file with the stream API
+ * or with FileChannel. The input files are created at setup, and the output
+ * files are overwritten by every operation.
+ *
+ * The bytes must pass through the cipher, so FileChannel.transferTo cannot be
+ * used. The mapped benchmark is the nearest zero-copy form, which reads the
+ * mapped input file without copying it into a buffer.
+ *
+ * Only the encryption is measured, because the JDK AES-GCM decryption holds
+ * the whole ciphertext in memory until doFinal.
+ */
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 2, jvmArgsAppend = {"-server", "-Xms2048M", "-Xmx2048M", "-XX:+UseG1GC"})
+@Threads(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FileCipherBench {
+
+    static {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    @State(Scope.Benchmark)
+    public static class FileProvider {
+
+        @Param({"JDK", "BC"})
+        String product;
+
+        @Param({"AES/GCM/NoPadding", "AES/CTR/NoPadding", "ChaCha20-Poly1305"})
+        String transformation;
+
+        // The file size in MB
+        @Param({"64", "256", "1024"})
+        int fileSize;
+
+        // The size of the reads and writes
+        @Param({"4096", "65536", "1048576"})
+        int bufferSize;
+
+        Path input;
+        Path output;
+        double sizeInMB;
+
+        SecretKey key;
+        AlgorithmParameterSpec[] paramSpecs;
+        int paramSpecIndex;
+        Cipher cipher;
+
+        byte[] copyBuffer;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            input = BenchmarkUtils.tempFile(fileSize * 1024L * 1024L);
+            output = Files.createTempFile("jbench-", ".enc");
+            output.toFile().deleteOnExit();
+            sizeInMB = fileSize;
+
+            key = transformation.contains("ChaCha20")
+                    ? BenchmarkUtils.AES_KEY_32 : BenchmarkUtils.AES_KEY_16;
+            paramSpecs = new AlgorithmParameterSpec[16];
+            for (int i = 0; i < paramSpecs.length; i++) {
+                paramSpecs[i] = paramSpec();
+            }
+            cipher = Cipher.getInstance(transformation,
+                    product.equals("JDK") ? "SunJCE" : product);
+
+            copyBuffer = new byte[bufferSize];
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+        }
+
+        /**
+         * Init the cipher with the next IV, as every file takes a new IV.
+         */
+        Cipher nextCipher() throws Exception {
+            paramSpecIndex = (paramSpecIndex + 1) % paramSpecs.length;
+            cipher.init(Cipher.ENCRYPT_MODE, key, paramSpecs[paramSpecIndex]);
+            return cipher;
+        }
+
+        OutputStream newOutputStream() throws IOException {
+            return Files.newOutputStream(output);
+        }
+
+        FileChannel newOutputChannel() throws IOException {
+            return FileChannel.open(output, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        private AlgorithmParameterSpec paramSpec() {
+            if (transformation.contains("GCM")) {
+                return new GCMParameterSpec(128, BenchmarkUtils.randomBytes(12));
+            } else if (transformation.contains("CTR")) {
+                return new IvParameterSpec(BenchmarkUtils.randomBytes(16));
+            } else if (transformation.equals("ChaCha20-Poly1305")) {
+                byte[] iv = BenchmarkUtils.randomBytes(12);
+                return product.equals("BC")
+                        ? new AEADParameterSpec(iv, 128)
+                        : new IvParameterSpec(iv);
+            }
+
+            throw new IllegalArgumentException(
+                    "Unknown transformation: " + transformation);
+        }
+    }
+
+    public static class ChannelProvider extends FileProvider {
+
+        @Param({"HEAP", "DIRECT"})
+        String buffer;
+
+        ByteBuffer inputBuffer;
+        ByteBuffer outputBuffer;
+
+        @Override
+        public void setup() throws Exception {
+            super.setup();
+            inputBuffer = BenchmarkUtils.buffer(buffer, bufferSize);
+            outputBuffer = BenchmarkUtils.buffer(buffer,
+                    nextCipher().getOutputSize(bufferSize));
+        }
+    }
+
+    public static class MappedProvider extends FileProvider {
+
+        MappedFile mappedInput;
+        ByteBuffer outputBuffer;
+
+        @Override
+        public void setup() throws Exception {
+            super.setup();
+            mappedInput = new MappedFile(input);
+            outputBuffer = ByteBuffer.allocateDirect(
+                    nextCipher().getOutputSize(bufferSize));
+        }
+    }
+
+    /**
+     * Read the file through CipherInputStream.
+     */
+    @Benchmark
+    public void inputStream(FileProvider provider, ThroughputCounter counter)
+            throws Exception {
+        counter.megabytes += provider.sizeInMB;
+        try (InputStream in = new CipherInputStream(
+                     Files.newInputStream(provider.input), provider.nextCipher());
+             OutputStream out = provider.newOutputStream()) {
+            copy(in, out, provider.copyBuffer);
+        }
+    }
+
+    /**
+     * Write the file through CipherOutputStream.
+     */
+    @Benchmark
+    public void outputStream(FileProvider provider, ThroughputCounter counter)
+            throws Exception {
+        counter.megabytes += provider.sizeInMB;
+        try (InputStream in = Files.newInputStream(provider.input);
+             OutputStream out = new CipherOutputStream(
+                     provider.newOutputStream(), provider.nextCipher())) {
+            copy(in, out, provider.copyBuffer);
+        }
+    }
+
+    /**
+     * Write the file through UpdateOutputStream, which reuses its output
+     * array.
+     */
+    @Benchmark
+    public void updateStream(FileProvider provider, ThroughputCounter counter)
+            throws Exception {
+        counter.megabytes += provider.sizeInMB;
+        try (InputStream in = Files.newInputStream(provider.input);
+             OutputStream out = new UpdateOutputStream(
+                     provider.newOutputStream(), provider.nextCipher(),
+                     provider.bufferSize)) {
+            copy(in, out, provider.copyBuffer);
+        }
+    }
+
+    /**
+     * Read into a ByteBuffer, update the cipher into another one, and write
+     * it, with FileChannel.
+     */
+    @Benchmark
+    public void channel(ChannelProvider provider, ThroughputCounter counter)
+            throws Exception {
+        counter.megabytes += provider.sizeInMB;
+        Cipher cipher = provider.nextCipher();
+        ByteBuffer inputBuffer = provider.inputBuffer;
+        ByteBuffer outputBuffer = provider.outputBuffer;
+        try (FileChannel in = FileChannel.open(provider.input);
+             FileChannel out = provider.newOutputChannel()) {
+            inputBuffer.clear();
+            while (in.read(inputBuffer) >= 0) {
+                inputBuffer.flip();
+                outputBuffer.clear();
+                cipher.update(inputBuffer, outputBuffer);
+                write(out, outputBuffer);
+                inputBuffer.clear();
+            }
+
+            inputBuffer.flip();
+            outputBuffer.clear();
+            cipher.doFinal(inputBuffer, outputBuffer);
+            write(out, outputBuffer);
+        }
+    }
+
+    /**
+     * Update the cipher from the mapped input file into a direct buffer, and
+     * write it with FileChannel.
+     */
+    @Benchmark
+    public void mapped(MappedProvider provider, ThroughputCounter counter)
+            throws Exception {
+        counter.megabytes += provider.sizeInMB;
+        Cipher cipher = provider.nextCipher();
+        MappedFile mappedInput = provider.mappedInput;
+        ByteBuffer outputBuffer = provider.outputBuffer;
+        try (FileChannel out = provider.newOutputChannel()) {
+            for (int i = 0; i < mappedInput.regionCount(); i++) {
+                ByteBuffer region = mappedInput.region(i);
+                while (region.hasRemaining()) {
+                    ByteBuffer chunk = region.duplicate();
+                    chunk.limit(chunk.position() + Math.min(
+                            provider.bufferSize, chunk.remaining()));
+                    outputBuffer.clear();
+                    cipher.update(chunk, outputBuffer);
+                    write(out, outputBuffer);
+                    region.position(chunk.position());
+                }
+            }
+
+            outputBuffer.clear();
+            cipher.doFinal(ByteBuffer.allocate(0), outputBuffer);
+            write(out, outputBuffer);
+        }
+    }
+
+    private static void copy(InputStream in, OutputStream out, byte[] buffer)
+            throws IOException {
+        int length;
+        while ((length = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, length);
+        }
+    }
+
+    private static void write(FileChannel out, ByteBuffer buffer)
+            throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.github.jbench.security.file;
+
+import com.github.jbench.BenchmarkUtils;
+import com.github.jbench.GigabyteCounter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmarks for hashing large files, sequentially with MessageDigest
+ * or in parallel as a Merkle tree. The test files are created at setup, and
+ * are likely in the page cache, so the benchmarks measure the hashing rather
+ * than the disk.
+ *
+ * Use com.github.jbench.runner.ScalingRunner with "--param parallelism" to
+ * get the scaling efficiency of the Merkle tree hashing.
+ */
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 2, jvmArgsAppend = {"-server", "-Xms2048M", "-Xmx2048M", "-XX:+UseG1GC"})
+@Threads(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FileHashBench {
+
+    @State(Scope.Benchmark)
+    public static class FileProvider {
+
+        @Param({"SHA-256", "SHA3-256"})
+        String algorithm;
+
+        // The file size in MB
+        @Param({"64", "256", "1024", "4096"})
+        int fileSize;
+
+        // The read buffer size of FileChannel
+        @Param({"1048576"})
+        int chunk;
+
+        Path file;
+        double sizeInGB;
+
+        MessageDigest digest;
+        MappedFile mappedFile;
+        ByteBuffer buffer;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            file = BenchmarkUtils.tempFile(fileSize * 1024L * 1024L);
+            sizeInGB = fileSize / 1024.0;
+
+            digest = MessageDigest.getInstance(algorithm);
+            mappedFile = new MappedFile(file);
+            buffer = ByteBuffer.allocateDirect(chunk);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    public static class MerkleProvider extends FileProvider {
+
+        @Param({"1048576", "4194304", "16777216"})
+        int leafSize;
+
+        @Param({"1", "2", "4", "8"})
+        int parallelism;
+
+        ForkJoinPool pool;
+        MerkleHasher hasher;
+
+        @Override
+        public void setup() throws Exception {
+            super.setup();
+            pool = new ForkJoinPool(parallelism);
+            hasher = new MerkleHasher(pool, algorithm, leafSize);
+        }
+
+        @Override
+        public void tearDown() throws IOException {
+            pool.shutdown();
+            super.tearDown();
+        }
+    }
+
+    /**
+     * Read the file with FileChannel into a direct buffer, and hash it.
+     */
+    @Benchmark
+    public byte[] channel(FileProvider provider, GigabyteCounter counter)
+            throws IOException {
+        counter.gigabytes += provider.sizeInGB;
+        ByteBuffer buffer = provider.buffer;
+        try (FileChannel channel = FileChannel.open(
+                provider.file, StandardOpenOption.READ)) {
+            buffer.clear();
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                provider.digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return provider.digest.digest();
+    }
+
+    /**
+     * Hash the mapped file region by region.
+     */
+    @Benchmark
+    public byte[] mapped(FileProvider provider, GigabyteCounter counter) {
+        counter.gigabytes += provider.sizeInGB;
+        MappedFile mappedFile = provider.mappedFile;
+        for (int i = 0; i < mappedFile.regionCount(); i++) {
+            provider.digest.update(mappedFile.region(i));
+        }
+        return provider.digest.digest();
+    }
+
+    /**
+     * Hash the mapped file as a Merkle tree, whose leaves are hashed in
+     * parallel.
+     */
+    @Benchmark
+    public byte[] merkle(MerkleProvider provider, GigabyteCounter counter) {
+        counter.gigabytes += provider.sizeInGB;
+        return provider.hasher.hash(provider.mappedFile);
+    }
+}
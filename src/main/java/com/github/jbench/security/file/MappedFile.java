@@ -0,0 +1,54 @@
+package com.github.jbench.security.file;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read-only file mapped into memory. A MappedByteBuffer cannot exceed 2 GB,
+ * so the file is mapped in 1 GB regions.
+ */
+class MappedFile {
+
+    static final int REGION_SIZE = 1 << 30;
+
+    final long size;
+    private final MappedByteBuffer[] regions;
+
+    MappedFile(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            size = channel.size();
+            regions = new MappedByteBuffer[(int) ((size + REGION_SIZE - 1) / REGION_SIZE)];
+            for (int i = 0; i < regions.length; i++) {
+                long position = (long) i * REGION_SIZE;
+                regions[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        position, Math.min(REGION_SIZE, size - position));
+            }
+        }
+    }
+
+    int regionCount() {
+        return regions.length;
+    }
+
+    /**
+     * A view of a whole region, which can be used by one thread.
+     */
+    ByteBuffer region(int index) {
+        return regions[index].duplicate();
+    }
+
+    /**
+     * A view of a part of the file, which can be used by one thread.
+     * The part must not span two regions.
+     */
+    ByteBuffer slice(long position, int length) {
+        ByteBuffer slice = regions[(int) (position / REGION_SIZE)].duplicate();
+        int offset = (int) (position % REGION_SIZE);
+        slice.limit(offset + length).position(offset);
+        return slice;
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.jbench.security.file;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Hash a mapped file as a Merkle tree in a ForkJoinPool. The file is split
+ * into the leaves with the same size, except the last one. The tree follows
+ * RFC 6962: a leaf hash is H(0x00 || leaf), an inner node hash is
+ * H(0x01 || left || right), and the left subtree of n leaves takes the
+ * largest power of two, which is less than n, of the leaves.
+ */
+class MerkleHasher {
+
+    private static final byte LEAF_PREFIX = 0x00;
+    private static final byte NODE_PREFIX = 0x01;
+
+    private final ForkJoinPool pool;
+    private final int leafSize;
+    private final ThreadLocal<MessageDigest> digests;
+
+    /**
+     * @param leafSize the leaf size, which must divide the mapped region size
+     */
+    MerkleHasher(ForkJoinPool pool, String algorithm, int leafSize)
+            throws NoSuchAlgorithmException {
+        if (MappedFile.REGION_SIZE % leafSize != 0) {
+            throw new IllegalArgumentException(
+                    "Unsupported leaf size: " + leafSize);
+        }
+
+        this.pool = pool;
+        this.leafSize = leafSize;
+
+        // Check the algorithm before the workers look it up
+        MessageDigest.getInstance(algorithm);
+        digests = ThreadLocal.withInitial(() -> {
+            try {
+                return MessageDigest.getInstance(algorithm);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    byte[] hash(MappedFile file) {
+        long leafCount = Math.max(1, (file.size + leafSize - 1) / leafSize);
+        return pool.invoke(new NodeTask(file, 0, leafCount));
+    }
+
+    private class NodeTask extends RecursiveTask<byte[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final MappedFile file;
+        private final long fromLeaf;
+        private final long toLeaf;
+
+        private NodeTask(MappedFile file, long fromLeaf, long toLeaf) {
+            this.file = file;
+            this.fromLeaf = fromLeaf;
+            this.toLeaf = toLeaf;
+        }
+
+        @Override
+        protected byte[] compute() {
+            long leafCount = toLeaf - fromLeaf;
+            if (leafCount == 1) {
+                return leafHash();
+            }
+
+            long split = fromLeaf + Long.highestOneBit(leafCount - 1);
+            NodeTask left = new NodeTask(file, fromLeaf, split);
+            NodeTask right = new NodeTask(file, split, toLeaf);
+            left.fork();
+            byte[] rightHash = right.compute();
+            byte[] leftHash = left.join();
+
+            MessageDigest digest = digests.get();
+            digest.update(NODE_PREFIX);
+            digest.update(leftHash);
+            digest.update(rightHash);
+            return digest.digest();
+        }
+
+        private byte[] leafHash() {
+            long position = fromLeaf * leafSize;
+            ByteBuffer leaf = file.slice(position,
+                    (int) Math.min(leafSize, file.size - position));
+
+            MessageDigest digest = digests.get();
+            digest.update(LEAF_PREFIX);
+            digest.update(leaf);
+            return digest.digest();
+        }
+    }
+}
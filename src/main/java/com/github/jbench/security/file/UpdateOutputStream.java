@@ -0,0 +1,59 @@
+package com.github.jbench.security.file;
+
+import javax.crypto.Cipher;
+import javax.crypto.ShortBufferException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+
+/**
+ * Pass the written bytes through a cipher, like DigestOutputStream passes
+ * them through a digest. Unlike CipherOutputStream, it updates the cipher
+ * into one reusable array, and writes the whole array at once.
+ * The cipher must be initialized, and is finished on close.
+ */
+class UpdateOutputStream extends FilterOutputStream {
+
+    private final Cipher cipher;
+    private byte[] output;
+
+    UpdateOutputStream(OutputStream out, Cipher cipher, int bufferSize) {
+        super(out);
+        this.cipher = cipher;
+        output = new byte[cipher.getOutputSize(bufferSize)];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureCapacity(cipher.getOutputSize(len));
+        try {
+            out.write(output, 0, cipher.update(b, off, len, output, 0));
+        } catch (ShortBufferException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            ensureCapacity(cipher.getOutputSize(0));
+            out.write(output, 0, cipher.doFinal(output, 0));
+        } catch (GeneralSecurityException e) {
+            throw new IOException(e);
+        } finally {
+            out.close();
+        }
+    }
+
+    private void ensureCapacity(int size) {
+        if (output.length < size) {
+            output = new byte[size];
+        }
+    }
+}
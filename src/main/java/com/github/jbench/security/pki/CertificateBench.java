@@ -0,0 +1,148 @@
+package com.github.jbench.security.pki;
+
+import com.github.jbench.CertificateUtils;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.security.Security;
+import java.security.cert.CertPath;
+import java.security.cert.CertPathValidator;
+import java.security.cert.CertPathValidatorResult;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.PKIXParameters;
+import java.security.cert.TrustAnchor;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmarks for parsing the X.509 certificate chains, compared with
+ * looking them up in a cache of the parsed certificates, and for validating
+ * the chains with PKIX. The revocation checking is disabled.
+ *
+ * A chain with depth 1 is a self-signed certificate, which is the trust
+ * anchor and the only certificate in the path.
+ *
+ * The JDK certificates remember their last verified public key, so validate
+ * mostly measures the path checks for them after the first call.
+ * parseAndValidate measures what a new connection costs without a cache.
+ */
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 2, jvmArgsAppend = {"-server", "-Xms2048M", "-Xmx2048M", "-XX:+UseG1GC"})
+@Threads(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CertificateBench {
+
+    static {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    @State(Scope.Benchmark)
+    public static class ChainProvider {
+
+        @Param({"JDK", "BC"})
+        String product;
+
+        @Param({"RSA", "EC", "Ed25519"})
+        String keyType;
+
+        @Param({"1", "2", "3", "4"})
+        int depth;
+
+        byte[][] encodings;
+
+        CertificateFactory certFactory;
+        DecodedCache<Certificate> cache;
+
+        CertPathValidator validator;
+        CertPath certPath;
+        PKIXParameters params;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            CertificateUtils.Chain chain = CertificateUtils.chain(keyType, depth);
+            encodings = new byte[depth][];
+            for (int i = 0; i < depth; i++) {
+                encodings[i] = chain.certificates[i].getEncoded();
+            }
+
+            certFactory = CertificateFactory.getInstance("X.509", provider());
+            cache = new DecodedCache<>(encoding -> certFactory.generateCertificate(
+                    new ByteArrayInputStream(encoding)));
+
+            certPath = certPath(parse(certFactory, encodings));
+            validator = CertPathValidator.getInstance("PKIX", provider());
+            params = new PKIXParameters(Collections.singleton(
+                    new TrustAnchor(chain.root(), null)));
+            params.setRevocationEnabled(false);
+        }
+
+        private String provider() {
+            return product.equals("JDK") ? "SUN" : product;
+        }
+
+        // The path excludes the root CA, unless it is the only one
+        CertPath certPath(Certificate[] chain) throws CertificateException {
+            List<Certificate> path = Arrays.asList(chain);
+            return certFactory.generateCertPath(
+                    depth == 1 ? path : path.subList(0, depth - 1));
+        }
+    }
+
+    private static Certificate[] parse(CertificateFactory certFactory,
+            byte[][] encodings) throws CertificateException {
+        Certificate[] certificates = new Certificate[encodings.length];
+        for (int i = 0; i < encodings.length; i++) {
+            certificates[i] = certFactory.generateCertificate(
+                    new ByteArrayInputStream(encodings[i]));
+        }
+        return certificates;
+    }
+
+    @Benchmark
+    public Certificate[] parse(ChainProvider provider)
+            throws CertificateException {
+        return parse(provider.certFactory, provider.encodings);
+    }
+
+    @Benchmark
+    public Certificate[] cachedParse(ChainProvider provider) throws Exception {
+        Certificate[] certificates = new Certificate[provider.encodings.length];
+        for (int i = 0; i < certificates.length; i++) {
+            certificates[i] = provider.cache.get(provider.encodings[i]);
+        }
+        return certificates;
+    }
+
+    @Benchmark
+    public CertPathValidatorResult validate(ChainProvider provider)
+            throws Exception {
+        return provider.validator.validate(provider.certPath, provider.params);
+    }
+
+    @Benchmark
+    public CertPathValidatorResult parseAndValidate(ChainProvider provider)
+            throws Exception {
+        CertPath certPath = provider.certPath(
+                parse(provider.certFactory, provider.encodings));
+        return provider.validator.validate(certPath, provider.params);
+    }
+}
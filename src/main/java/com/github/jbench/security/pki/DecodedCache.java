@@ -0,0 +1,67 @@
+package com.github.jbench.security.pki;
+
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The memoized decoded objects, e.g. keys and certificates, keyed by their
+ * encodings. A lookup hashes the encoding and compares it with the cached one
+ * byte by byte, just like a lookup with a freshly received encoding.
+ *
+ * @param <T> the decoded object type
+ */
+class DecodedCache<T> {
+
+    @FunctionalInterface
+    interface Decoder<T> {
+
+        T decode(byte[] encoding) throws GeneralSecurityException;
+    }
+
+    private final ConcurrentMap<Encoding, T> cache = new ConcurrentHashMap<>();
+    private final Decoder<T> decoder;
+
+    DecodedCache(Decoder<T> decoder) {
+        this.decoder = decoder;
+    }
+
+    T get(byte[] encoding) throws GeneralSecurityException {
+        T decoded = cache.get(new Encoding(encoding));
+        if (decoded == null) {
+            decoded = decoder.decode(encoding);
+
+            // Own a copy, so a lookup never hits the same array
+            T cached = cache.putIfAbsent(
+                    new Encoding(encoding.clone()), decoded);
+            if (cached != null) {
+                decoded = cached;
+            }
+        }
+
+        return decoded;
+    }
+
+    private static final class Encoding {
+
+        private final byte[] bytes;
+        private final int hash;
+
+        private Encoding(byte[] bytes) {
+            this.bytes = bytes;
+            hash = Arrays.hashCode(bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Encoding
+                    && Arrays.equals(bytes, ((Encoding) obj).bytes);
+        }
+    }
+}
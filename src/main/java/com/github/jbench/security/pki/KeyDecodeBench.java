@@ -0,0 +1,110 @@
+package com.github.jbench.security.pki;
+
+import com.github.jbench.CertificateUtils;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Security;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmarks for decoding the X.509 public keys and the PKCS#8 private
+ * keys, compared with looking them up in a cache of the decoded keys.
+ */
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 2, jvmArgsAppend = {"-server", "-Xms2048M", "-Xmx2048M", "-XX:+UseG1GC"})
+@Threads(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class KeyDecodeBench {
+
+    static {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    @State(Scope.Benchmark)
+    public static class KeyProvider {
+
+        @Param({"JDK", "BC"})
+        String product;
+
+        @Param({"RSA", "EC", "Ed25519"})
+        String keyType;
+
+        byte[] publicKey;
+        byte[] privateKey;
+
+        KeyFactory keyFactory;
+        DecodedCache<PublicKey> publicKeys;
+        DecodedCache<PrivateKey> privateKeys;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            KeyPair keyPair = CertificateUtils.keyPair(keyType);
+            publicKey = keyPair.getPublic().getEncoded();
+            privateKey = keyPair.getPrivate().getEncoded();
+
+            keyFactory = KeyFactory.getInstance(keyType, provider());
+            publicKeys = new DecodedCache<>(encoding
+                    -> keyFactory.generatePublic(new X509EncodedKeySpec(encoding)));
+            privateKeys = new DecodedCache<>(encoding
+                    -> keyFactory.generatePrivate(new PKCS8EncodedKeySpec(encoding)));
+        }
+
+        private String provider() {
+            if (product.equals("JDK")) {
+                if (keyType.equals("RSA")) {
+                    return "SunRsaSign";
+                } else {
+                    return "SunEC";
+                }
+            }
+
+            return product;
+        }
+    }
+
+    @Benchmark
+    public PublicKey decodePublicKey(KeyProvider provider)
+            throws InvalidKeySpecException {
+        return provider.keyFactory.generatePublic(
+                new X509EncodedKeySpec(provider.publicKey));
+    }
+
+    @Benchmark
+    public PrivateKey decodePrivateKey(KeyProvider provider)
+            throws InvalidKeySpecException {
+        return provider.keyFactory.generatePrivate(
+                new PKCS8EncodedKeySpec(provider.privateKey));
+    }
+
+    @Benchmark
+    public PublicKey cachedPublicKey(KeyProvider provider) throws Exception {
+        return provider.publicKeys.get(provider.publicKey);
+    }
+
+    @Benchmark
+    public PrivateKey cachedPrivateKey(KeyProvider provider) throws Exception {
+        return provider.privateKeys.get(provider.privateKey);
+    }
+}
@@ -0,0 +1,133 @@
+package com.github.jbench.security.pqc;
+
+import org.bouncycastle.jcajce.SecretKeyWithEncapsulation;
+import org.bouncycastle.jcajce.spec.KEMExtractSpec;
+import org.bouncycastle.jcajce.spec.KEMGenerateSpec;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.pqc.jcajce.provider.BouncyCastlePQCProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.crypto.KeyAgreement;
+import javax.crypto.KeyGenerator;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.Security;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmarks for the hybrid X25519+Kyber768 key exchange, compared with
+ * the X25519 key exchange. Every exchange takes the ephemeral keys, as a TLS
+ * handshake does, and combines the shared secrets with SHA-256.
+ */
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 2, jvmArgsAppend = {"-server", "-Xms2048M", "-Xmx2048M", "-XX:+UseG1GC"})
+@Threads(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class HybridKeyExBench {
+
+    private static final String KEM = "kyber768";
+
+    static {
+        Security.addProvider(new BouncyCastleProvider());
+        Security.addProvider(new BouncyCastlePQCProvider());
+    }
+
+    @State(Scope.Benchmark)
+    public static class HybridProvider {
+
+        // The X25519 provider
+        @Param({"JDK", "BC"})
+        String product;
+
+        KeyPairGenerator x25519KeyPairGen;
+        KeyAgreement clientKeyEx;
+        KeyAgreement serverKeyEx;
+
+        KeyPairGenerator kemKeyPairGen;
+        KeyGenerator encapsulator;
+        KeyGenerator decapsulator;
+
+        MessageDigest clientDigest;
+        MessageDigest serverDigest;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            String provider = product.equals("JDK") ? "SunEC" : product;
+            x25519KeyPairGen = KeyPairGenerator.getInstance("X25519", provider);
+            clientKeyEx = KeyAgreement.getInstance("X25519", provider);
+            serverKeyEx = KeyAgreement.getInstance("X25519", provider);
+
+            kemKeyPairGen = PqcAlgorithms.keyPairGen(KEM);
+            encapsulator = KeyGenerator.getInstance(
+                    PqcAlgorithms.algorithm(KEM), PqcAlgorithms.PROVIDER);
+            decapsulator = KeyGenerator.getInstance(
+                    PqcAlgorithms.algorithm(KEM), PqcAlgorithms.PROVIDER);
+
+            clientDigest = MessageDigest.getInstance("SHA-256");
+            serverDigest = MessageDigest.getInstance("SHA-256");
+        }
+    }
+
+    @Benchmark
+    public byte[] classical(HybridProvider provider, Blackhole blackhole)
+            throws Exception {
+        KeyPair clientKeyPair = provider.x25519KeyPairGen.generateKeyPair();
+        KeyPair serverKeyPair = provider.x25519KeyPairGen.generateKeyPair();
+
+        provider.serverKeyEx.init(serverKeyPair.getPrivate());
+        provider.serverKeyEx.doPhase(clientKeyPair.getPublic(), true);
+        provider.serverDigest.update(provider.serverKeyEx.generateSecret());
+        blackhole.consume(provider.serverDigest.digest());
+
+        provider.clientKeyEx.init(clientKeyPair.getPrivate());
+        provider.clientKeyEx.doPhase(serverKeyPair.getPublic(), true);
+        provider.clientDigest.update(provider.clientKeyEx.generateSecret());
+        return provider.clientDigest.digest();
+    }
+
+    @Benchmark
+    public byte[] hybrid(HybridProvider provider, Blackhole blackhole)
+            throws Exception {
+        // The client shares the X25519 and Kyber public keys
+        KeyPair clientKeyPair = provider.x25519KeyPairGen.generateKeyPair();
+        KeyPair clientKemKeyPair = provider.kemKeyPairGen.generateKeyPair();
+
+        // The server shares the X25519 public key and the Kyber ciphertext
+        KeyPair serverKeyPair = provider.x25519KeyPairGen.generateKeyPair();
+        provider.encapsulator.init(
+                new KEMGenerateSpec(clientKemKeyPair.getPublic(), "AES"));
+        SecretKeyWithEncapsulation serverKemSecret
+                = (SecretKeyWithEncapsulation) provider.encapsulator.generateKey();
+
+        provider.serverKeyEx.init(serverKeyPair.getPrivate());
+        provider.serverKeyEx.doPhase(clientKeyPair.getPublic(), true);
+        provider.serverDigest.update(provider.serverKeyEx.generateSecret());
+        provider.serverDigest.update(serverKemSecret.getEncoded());
+        blackhole.consume(provider.serverDigest.digest());
+
+        provider.decapsulator.init(new KEMExtractSpec(
+                clientKemKeyPair.getPrivate(),
+                serverKemSecret.getEncapsulation(), "AES"));
+        provider.clientKeyEx.init(clientKeyPair.getPrivate());
+        provider.clientKeyEx.doPhase(serverKeyPair.getPublic(), true);
+        provider.clientDigest.update(provider.clientKeyEx.generateSecret());
+        provider.clientDigest.update(provider.decapsulator.generateKey().getEncoded());
+        return provider.clientDigest.digest();
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.jbench.security.pqc;
+
+import org.bouncycastle.jcajce.SecretKeyWithEncapsulation;
+import org.bouncycastle.jcajce.spec.KEMExtractSpec;
+import org.bouncycastle.jcajce.spec.KEMGenerateSpec;
+import org.bouncycastle.pqc.jcajce.provider.BouncyCastlePQCProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.security.KeyPair;
+import java.security.Security;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmarks for post-quantum key encapsulation mechanisms.
+ */
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 2, jvmArgsAppend = {"-server", "-Xms2048M", "-Xmx2048M", "-XX:+UseG1GC"})
+@Threads(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class KemBench {
+
+    static {
+        Security.addProvider(new BouncyCastlePQCProvider());
+    }
+
+    @State(Scope.Benchmark)
+    public static class KemProvider {
+
+        @Param({"kyber512", "kyber768", "kyber1024"})
+        String parameterSet;
+
+        KeyGenerator encapsulator;
+        KeyGenerator decapsulator;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            String algorithm = PqcAlgorithms.algorithm(parameterSet);
+            KeyPair keyPair = PqcAlgorithms.keyPair(parameterSet);
+
+            encapsulator = KeyGenerator.getInstance(
+                    algorithm, PqcAlgorithms.PROVIDER);
+            encapsulator.init(new KEMGenerateSpec(keyPair.getPublic(), "AES"));
+            SecretKeyWithEncapsulation secretKey
+                    = (SecretKeyWithEncapsulation) encapsulator.generateKey();
+
+            decapsulator = KeyGenerator.getInstance(
+                    algorithm, PqcAlgorithms.PROVIDER);
+            decapsulator.init(new KEMExtractSpec(keyPair.getPrivate(),
+                    secretKey.getEncapsulation(), "AES"));
+        }
+    }
+
+    /**
+     * Generate a shared secret and its encapsulation with the public key.
+     */
+    @Benchmark
+    public SecretKey encapsulate(KemProvider provider) {
+        return provider.encapsulator.generateKey();
+    }
+
+    /**
+     * Extract the shared secret from the encapsulation with the private key.
+     */
+    @Benchmark
+    public SecretKey decapsulate(KemProvider provider) {
+        return provider.decapsulator.generateKey();
+    }
+}
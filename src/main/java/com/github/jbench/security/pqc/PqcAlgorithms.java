@@ -0,0 +1,60 @@
+package com.github.jbench.security.pqc;
+
+import org.bouncycastle.pqc.jcajce.spec.DilithiumParameterSpec;
+import org.bouncycastle.pqc.jcajce.spec.FalconParameterSpec;
+import org.bouncycastle.pqc.jcajce.spec.KyberParameterSpec;
+import org.bouncycastle.pqc.jcajce.spec.SPHINCSPlusParameterSpec;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.AlgorithmParameterSpec;
+
+/**
+ * The post-quantum algorithms and parameter sets in the BCPQC provider.
+ */
+class PqcAlgorithms {
+
+    static final String PROVIDER = "BCPQC";
+
+    static String algorithm(String parameterSet) {
+        if (parameterSet.startsWith("kyber")) {
+            return "Kyber";
+        } else if (parameterSet.startsWith("dilithium")) {
+            return "Dilithium";
+        } else if (parameterSet.startsWith("falcon")) {
+            return "Falcon";
+        } else if (parameterSet.startsWith("sphincs+")) {
+            return "SPHINCSPlus";
+        }
+
+        throw new IllegalArgumentException(
+                "Unsupported parameter set: " + parameterSet);
+    }
+
+    static AlgorithmParameterSpec paramSpec(String parameterSet) {
+        if (parameterSet.startsWith("kyber")) {
+            return KyberParameterSpec.fromName(parameterSet);
+        } else if (parameterSet.startsWith("dilithium")) {
+            return DilithiumParameterSpec.fromName(parameterSet);
+        } else if (parameterSet.startsWith("falcon")) {
+            return FalconParameterSpec.fromName(parameterSet);
+        } else if (parameterSet.startsWith("sphincs+")) {
+            return SPHINCSPlusParameterSpec.fromName(
+                    parameterSet.substring("sphincs+-".length()));
+        }
+
+        throw new IllegalArgumentException(
+                "Unsupported parameter set: " + parameterSet);
+    }
+
+    static KeyPairGenerator keyPairGen(String parameterSet) throws Exception {
+        KeyPairGenerator keyPairGen = KeyPairGenerator.getInstance(
+                algorithm(parameterSet), PROVIDER);
+        keyPairGen.initialize(paramSpec(parameterSet));
+        return keyPairGen;
+    }
+
+    static KeyPair keyPair(String parameterSet) throws Exception {
+        return keyPairGen(parameterSet).generateKeyPair();
+    }
+}
@@ -0,0 +1,59 @@
+package com.github.jbench.security.pqc;
+
+import org.bouncycastle.pqc.jcajce.provider.BouncyCastlePQCProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Security;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmarks for post-quantum key pair generators.
+ */
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 2, jvmArgsAppend = {"-server", "-Xms2048M", "-Xmx2048M", "-XX:+UseG1GC"})
+@Threads(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PqcKeyPairGenBench {
+
+    static {
+        Security.addProvider(new BouncyCastlePQCProvider());
+    }
+
+    @State(Scope.Benchmark)
+    public static class KeyPairGenProvider {
+
+        @Param({"kyber512", "kyber768", "kyber1024",
+                "dilithium2", "dilithium3", "dilithium5",
+                "falcon-512", "falcon-1024",
+                "sphincs+-sha2-128f", "sphincs+-sha2-128s", "sphincs+-shake-128f"})
+        String parameterSet;
+
+        KeyPairGenerator keyPairGen;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            keyPairGen = PqcAlgorithms.keyPairGen(parameterSet);
+        }
+    }
+
+    @Benchmark
+    public KeyPair keyPairGen(KeyPairGenProvider provider) {
+        return provider.keyPairGen.generateKeyPair();
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.jbench.security.pqc;
+
+import com.github.jbench.BenchmarkUtils;
+import org.bouncycastle.pqc.jcajce.provider.BouncyCastlePQCProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.KeyPair;
+import java.security.Security;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmarks for post-quantum signature algorithms.
+ */
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 2, jvmArgsAppend = {"-server", "-Xms2048M", "-Xmx2048M", "-XX:+UseG1GC"})
+@Threads(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PqcSignatureBench {
+
+    static {
+        Security.addProvider(new BouncyCastlePQCProvider());
+    }
+
+    @State(Scope.Benchmark)
+    public abstract static class SignatureProvider {
+
+        @Param({"dilithium2", "dilithium3", "dilithium5",
+                "falcon-512", "falcon-1024",
+                "sphincs+-sha2-128f", "sphincs+-sha2-128s", "sphincs+-shake-128f"})
+        String parameterSet;
+
+        @Param({"1024"})
+        int size;
+
+        byte[] message;
+        KeyPair keyPair;
+        Signature signature;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            message = BenchmarkUtils.bytes(size);
+            keyPair = PqcAlgorithms.keyPair(parameterSet);
+            signature = Signature.getInstance(
+                    PqcAlgorithms.algorithm(parameterSet), PqcAlgorithms.PROVIDER);
+            initSignature();
+        }
+
+        abstract void initSignature() throws Exception;
+    }
+
+    public static class Signer extends SignatureProvider {
+
+        @Override
+        void initSignature() throws Exception {
+            signature.initSign(keyPair.getPrivate());
+        }
+    }
+
+    public static class Verifier extends SignatureProvider {
+
+        byte[] sig;
+
+        @Override
+        void initSignature() throws Exception {
+            signature.initSign(keyPair.getPrivate());
+            signature.update(message, 0, message.length);
+            sig = signature.sign();
+
+            signature.initVerify(keyPair.getPublic());
+        }
+    }
+
+    @Benchmark
+    public byte[] sign(Signer signer) throws SignatureException {
+        signer.signature.update(signer.message, 0, signer.message.length);
+        return signer.signature.sign();
+    }
+
+    @Benchmark
+    public boolean verify(Verifier verifier) throws SignatureException {
+        verifier.signature.update(verifier.message, 0, verifier.message.length);
+        return verifier.signature.verify(verifier.sig);
+    }
+}
@@ -0,0 +1,121 @@
+package com.github.jbench.security.tls;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLException;
+import java.nio.ByteBuffer;
+
+/**
+ * A client and a server SSLEngine, which exchange the TLS records over
+ * in-memory buffers instead of sockets.
+ */
+class EnginePair {
+
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private static final int MAX_ROUNDS = 100;
+
+    final SSLEngine client;
+    final SSLEngine server;
+
+    // The records from the client to the server, and the reverse
+    final ByteBuffer clientToServer;
+    final ByteBuffer serverToClient;
+
+    // The application data received by the client and the server
+    final ByteBuffer clientIn;
+    final ByteBuffer serverIn;
+
+    EnginePair(SSLEngine client, SSLEngine server) {
+        this.client = client;
+        this.server = server;
+        client.setUseClientMode(true);
+        server.setUseClientMode(false);
+
+        // A handshake flight may have several records
+        int packetSize = client.getSession().getPacketBufferSize();
+        clientToServer = ByteBuffer.allocate(packetSize * 4);
+        serverToClient = ByteBuffer.allocate(packetSize * 4);
+
+        int appSize = client.getSession().getApplicationBufferSize();
+        clientIn = ByteBuffer.allocate(appSize);
+        serverIn = ByteBuffer.allocate(appSize);
+    }
+
+    void handshake() throws SSLException {
+        client.beginHandshake();
+        server.beginHandshake();
+        exchange();
+    }
+
+    /**
+     * Exchange the records until both the engines are not handshaking and
+     * all the records are consumed, e.g. the TLS 1.3 NewSessionTicket after
+     * the handshake, or a KeyUpdate.
+     */
+    void exchange() throws SSLException {
+        for (int round = 0; isHandshaking()
+                || clientToServer.position() > 0
+                || serverToClient.position() > 0; round++) {
+            if (round == MAX_ROUNDS) {
+                throw new IllegalStateException(
+                        "Handshake doesn't finish in " + MAX_ROUNDS + " rounds");
+            }
+
+            wrap(client, clientToServer);
+            wrap(server, serverToClient);
+            unwrap(client, serverToClient, clientIn);
+            unwrap(server, clientToServer, serverIn);
+        }
+    }
+
+    boolean isHandshaking() {
+        return client.getHandshakeStatus()
+                    != SSLEngineResult.HandshakeStatus.NOT_HANDSHAKING
+                || server.getHandshakeStatus()
+                    != SSLEngineResult.HandshakeStatus.NOT_HANDSHAKING;
+    }
+
+    private static void wrap(SSLEngine engine, ByteBuffer net)
+            throws SSLException {
+        while (engine.getHandshakeStatus()
+                == SSLEngineResult.HandshakeStatus.NEED_WRAP) {
+            SSLEngineResult result = engine.wrap(EMPTY, net);
+            runDelegatedTasks(engine);
+
+            if (result.getStatus() != SSLEngineResult.Status.OK) {
+                throw new SSLException("Unexpected wrap result: " + result);
+            }
+        }
+    }
+
+    private static void unwrap(SSLEngine engine, ByteBuffer net, ByteBuffer app)
+            throws SSLException {
+        net.flip();
+        try {
+            while (net.hasRemaining()) {
+                SSLEngineResult result = engine.unwrap(net, app);
+                runDelegatedTasks(engine);
+                app.clear();
+
+                if (result.getStatus() == SSLEngineResult.Status.BUFFER_UNDERFLOW
+                        || result.bytesConsumed() == 0) {
+                    break;
+                }
+
+                if (result.getStatus() != SSLEngineResult.Status.OK) {
+                    throw new SSLException("Unexpected unwrap result: " + result);
+                }
+            }
+        } finally {
+            net.compact();
+        }
+    }
+
+    private static void runDelegatedTasks(SSLEngine engine) {
+        Runnable task;
+        while ((task = engine.getDelegatedTask()) != null) {
+            task.run();
+        }
+    }
+}
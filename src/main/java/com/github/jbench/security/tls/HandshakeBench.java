@@ -0,0 +1,57 @@
+package com.github.jbench.security.tls;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.net.ssl.SSLSession;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmarks for TLS handshakes between a client and a server SSLEngine.
+ */
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 2, jvmArgsAppend = {"-server", "-Xms2048M", "-Xmx2048M", "-XX:+UseG1GC"})
+@Threads(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class HandshakeBench {
+
+    public static class HandshakeProvider extends TlsProvider {
+
+        @Override
+        public void setup() throws Exception {
+            super.setup();
+
+            // Cache a session for the resumptions
+            enginePair(true).handshake();
+        }
+    }
+
+    /**
+     * A full handshake, including the certificate validation.
+     */
+    @Benchmark
+    public SSLSession handshake(HandshakeProvider provider) throws Exception {
+        EnginePair enginePair = provider.enginePair(false);
+        enginePair.handshake();
+        return enginePair.client.getSession();
+    }
+
+    /**
+     * An abbreviated handshake, which resumes the cached session. In TLS 1.3,
+     * every resumption caches the new session ticket for the next one.
+     */
+    @Benchmark
+    public SSLSession resumption(HandshakeProvider provider) throws Exception {
+        EnginePair enginePair = provider.enginePair(true);
+        enginePair.handshake();
+        return enginePair.client.getSession();
+    }
+}
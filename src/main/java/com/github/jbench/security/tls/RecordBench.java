@@ -0,0 +1,108 @@
+package com.github.jbench.security.tls;
+
+import com.github.jbench.BenchmarkUtils;
+import com.github.jbench.ThroughputCounter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.net.ssl.SSLException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmarks for protecting the application data in TLS records over an
+ * established connection.
+ */
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 2, jvmArgsAppend = {"-server", "-Xms2048M", "-Xmx2048M", "-XX:+UseG1GC"})
+@Threads(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RecordBench {
+
+    public static class RecordProvider extends TlsProvider {
+
+        // The application data size, up to the max record size
+        @Param({"64", "512", "1024", "4096", "16384"})
+        int size;
+
+        double sizeInMB;
+        ByteBuffer clientOut;
+        EnginePair enginePair;
+
+        @Override
+        public void setup() throws Exception {
+            super.setup();
+
+            sizeInMB = BenchmarkUtils.toMB(size);
+            clientOut = ByteBuffer.wrap(BenchmarkUtils.bytes(size));
+
+            enginePair = enginePair(false);
+            enginePair.handshake();
+        }
+    }
+
+    /**
+     * The client wraps the data into the records, which are discarded.
+     */
+    @Benchmark
+    public ByteBuffer wrap(RecordProvider provider, ThroughputCounter counter)
+            throws SSLException {
+        counter.megabytes += provider.sizeInMB;
+        EnginePair enginePair = provider.enginePair;
+
+        provider.clientOut.rewind();
+        enginePair.clientToServer.clear();
+        wrap(enginePair, provider.clientOut);
+        return enginePair.clientToServer;
+    }
+
+    /**
+     * The client wraps the data into the records, and the server unwraps them.
+     * The unwrap cost is the difference to wrap.
+     */
+    @Benchmark
+    public ByteBuffer wrapUnwrap(RecordProvider provider,
+                                 ThroughputCounter counter)
+            throws SSLException {
+        counter.megabytes += provider.sizeInMB;
+        EnginePair enginePair = provider.enginePair;
+
+        provider.clientOut.rewind();
+        wrap(enginePair, provider.clientOut);
+
+        enginePair.clientToServer.flip();
+        enginePair.serverIn.clear();
+        while (enginePair.clientToServer.hasRemaining()) {
+            enginePair.server.unwrap(
+                    enginePair.clientToServer, enginePair.serverIn);
+        }
+        enginePair.clientToServer.clear();
+        serviceHandshake(enginePair);
+        return enginePair.serverIn;
+    }
+
+    // A TLS 1.3 record takes a bit less than 16 KB application data
+    private static void wrap(EnginePair enginePair, ByteBuffer clientOut)
+            throws SSLException {
+        while (clientOut.hasRemaining()) {
+            enginePair.client.wrap(clientOut, enginePair.clientToServer);
+        }
+    }
+
+    // Process the post-handshake messages, e.g. the KeyUpdate on the key limit
+    private static void serviceHandshake(EnginePair enginePair)
+            throws SSLException {
+        if (enginePair.isHandshaking()) {
+            enginePair.exchange();
+        }
+    }
+}
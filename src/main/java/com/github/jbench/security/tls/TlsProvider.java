@@ -0,0 +1,105 @@
+package com.github.jbench.security.tls;
+
+import com.github.jbench.CertificateUtils;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.TrustManagerFactory;
+import java.security.KeyStore;
+
+/**
+ * The TLS protocol, cipher suite and server certificate, and the client and
+ * server contexts with them.
+ *
+ * The cipher suite consists of the protocol, the cipher and the key type,
+ * e.g. TLSv1.2, AES_128_GCM and EC mean
+ * TLS_ECDHE_ECDSA_WITH_AES_128_GCM_SHA256.
+ */
+@State(Scope.Benchmark)
+public abstract class TlsProvider {
+
+    private static final char[] PASSWORD = "password".toCharArray();
+
+    // The resumable sessions are cached by the peer host and port
+    private static final String PEER_HOST = "localhost";
+    private static final int PEER_PORT = 443;
+
+    @Param({"TLSv1.3", "TLSv1.2"})
+    String protocol;
+
+    @Param({"AES_128_GCM", "AES_256_GCM", "CHACHA20_POLY1305"})
+    String cipher;
+
+    @Param({"EC", "RSA"})
+    String keyType;
+
+    String cipherSuite;
+    SSLContext clientContext;
+    SSLContext serverContext;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        cipherSuite = cipherSuite();
+
+        // A root CA and the server certificate
+        CertificateUtils.Chain chain = CertificateUtils.chain(keyType, 2);
+
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        keyStore.load(null, null);
+        keyStore.setKeyEntry("server", chain.privateKey, PASSWORD,
+                chain.certificates);
+        KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(
+                KeyManagerFactory.getDefaultAlgorithm());
+        keyManagerFactory.init(keyStore, PASSWORD);
+        serverContext = SSLContext.getInstance("TLS");
+        serverContext.init(keyManagerFactory.getKeyManagers(), null, null);
+
+        KeyStore trustStore = KeyStore.getInstance("PKCS12");
+        trustStore.load(null, null);
+        trustStore.setCertificateEntry("ca", chain.root());
+        TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(
+                TrustManagerFactory.getDefaultAlgorithm());
+        trustManagerFactory.init(trustStore);
+        clientContext = SSLContext.getInstance("TLS");
+        clientContext.init(null, trustManagerFactory.getTrustManagers(), null);
+    }
+
+    /**
+     * Create a client and server engine pair.
+     *
+     * @param resumable if the client engine can resume the cached session,
+     *                  which requires the peer host and port
+     */
+    EnginePair enginePair(boolean resumable) {
+        SSLEngine client = resumable
+                ? clientContext.createSSLEngine(PEER_HOST, PEER_PORT)
+                : clientContext.createSSLEngine();
+        SSLEngine server = serverContext.createSSLEngine();
+
+        for (SSLEngine engine : new SSLEngine[] {client, server}) {
+            engine.setEnabledProtocols(new String[] {protocol});
+            engine.setEnabledCipherSuites(new String[] {cipherSuite});
+        }
+
+        return new EnginePair(client, server);
+    }
+
+    private String cipherSuite() {
+        String hash = cipher.equals("AES_256_GCM") ? "SHA384" : "SHA256";
+
+        if (protocol.equals("TLSv1.3")) {
+            return "TLS_" + cipher + "_" + hash;
+        } else if (protocol.equals("TLSv1.2")) {
+            String auth = keyType.equals("EC") ? "ECDSA" : keyType;
+            return "TLS_ECDHE_" + auth + "_WITH_" + cipher + "_" + hash;
+        }
+
+        throw new IllegalArgumentException("Unsupported protocol: " + protocol);
+    }
+}